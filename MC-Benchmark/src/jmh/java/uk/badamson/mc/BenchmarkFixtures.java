@@ -0,0 +1,95 @@
+package uk.badamson.mc;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import uk.badamson.mc.repository.CurrentUserGameSpringRepository;
+import uk.badamson.mc.repository.GameSpringRepository;
+import uk.badamson.mc.repository.MCSpringRepositoryAdapter;
+import uk.badamson.mc.repository.UserSpringRepository;
+import uk.badamson.mc.service.ScenarioSpringService;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Realistic values for benchmarks to process.
+ * </p>
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+        // not instantiable
+    }
+
+    @Nonnull
+    private static <T> T unsupported(@Nonnull final Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(
+                type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+
+    /**
+     * <p>
+     * A repository adapter that can not access a database.
+     * </p>
+     * <p>
+     * Sufficient for retrieving scenarios, which are not held in the database.
+     * </p>
+     */
+    @Nonnull
+    public static MCSpringRepositoryAdapter createRepositoryWithoutDatabase() {
+        return new MCSpringRepositoryAdapter(
+                unsupported(CurrentUserGameSpringRepository.class),
+                unsupported(GameSpringRepository.class),
+                unsupported(UserSpringRepository.class));
+    }
+
+    @Nonnull
+    public static Game createGame(final int players) {
+        final Map<UUID, UUID> users = new HashMap<>();
+        for (int p = 0; p < players; ++p) {
+            users.put(UUID.randomUUID(), UUID.randomUUID());
+        }
+        return new Game(Instant.now(), Game.RunState.RUNNING, false, users);
+    }
+
+    @Nonnull
+    public static User createUser() {
+        return new User(UUID.randomUUID(), new BasicUserDetails(
+                "jeff-" + UUID.randomUUID(),
+                "{bcrypt}$2a$10$dXJ3SW6G7P50lGmMkkmwe.20cQQubK3.HZWzG3YB1tlRy.fqvM/BG",
+                EnumSet.of(Authority.ROLE_PLAYER),
+                true, true, true, true));
+    }
+
+    @Nonnull
+    public static Scenario getAScenario() {
+        final var scenarioService = new ScenarioSpringService(createRepositoryWithoutDatabase());
+        final var id = scenarioService.getScenarioIdentifiers().findAny().orElseThrow();
+        return scenarioService.getScenario(id).orElseThrow();
+    }
+}
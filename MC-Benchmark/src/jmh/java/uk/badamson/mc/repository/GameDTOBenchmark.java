@@ -0,0 +1,61 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.openjdk.jmh.annotations.*;
+import uk.badamson.mc.BenchmarkFixtures;
+import uk.badamson.mc.Game;
+
+import java.util.UUID;
+
+/**
+ * <p>
+ * Conversion of games to and from the form held in the database,
+ * which is done for every request that reads or changes a game.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class GameDTOBenchmark {
+
+    @Param({"0", "4", "16", "64"})
+    public int players;
+
+    private UUID gameId;
+    private UUID scenarioId;
+    private Game game;
+    private GameDTO dto;
+
+    @Setup
+    public void setUp() {
+        gameId = UUID.randomUUID();
+        scenarioId = UUID.randomUUID();
+        game = BenchmarkFixtures.createGame(players);
+        dto = GameDTO.convertToDTO(gameId, scenarioId, game);
+    }
+
+    @Benchmark
+    public GameDTO convertToDTO() {
+        return GameDTO.convertToDTO(gameId, scenarioId, game);
+    }
+
+    @Benchmark
+    public Game convertFromDTO() {
+        return GameDTO.convertFromDTO(dto);
+    }
+}
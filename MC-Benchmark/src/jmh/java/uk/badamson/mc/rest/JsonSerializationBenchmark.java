@@ -0,0 +1,100 @@
+package uk.badamson.mc.rest;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import uk.badamson.mc.BenchmarkFixtures;
+import uk.badamson.mc.NamedUUID;
+import uk.badamson.mc.presentation.UuidJsonModule;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Serialization of REST API responses as JSON,
+ * using an {@link ObjectMapper} configured in the same way as the server configures it.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"0", "4", "16", "64"})
+    public int players;
+
+    @Param({"100"})
+    public int games;
+
+    /**
+     * <p>
+     * Whether to use the {@link UuidJsonModule}, as the server does,
+     * rather than the standard Jackson handling of UUIDs.
+     * </p>
+     */
+    @Param({"false", "true"})
+    public boolean uuidModule;
+
+    private ObjectWriter gameWriter;
+    private ObjectWriter userWriter;
+    private ObjectWriter namedUUIDsWriter;
+    private GameResponse game;
+    private UserResponse user;
+    private List<NamedUUID> gameIdentifiers;
+
+    @Setup
+    public void setUp() {
+        final var builder = Jackson2ObjectMapperBuilder.json();
+        if (uuidModule) {
+            builder.modulesToInstall(new UuidJsonModule());
+        }
+        final ObjectMapper objectMapper = builder.build();
+        gameWriter = objectMapper.writerFor(GameResponse.class);
+        userWriter = objectMapper.writerFor(UserResponse.class);
+        namedUUIDsWriter = objectMapper.writerFor(
+                objectMapper.getTypeFactory().constructCollectionType(List.class, NamedUUID.class));
+        game = GameResponse.convertToResponse(UUID.randomUUID(), UUID.randomUUID(), BenchmarkFixtures.createGame(players));
+        user = UserResponse.convertToResponse(BenchmarkFixtures.createUser());
+        gameIdentifiers = new ArrayList<>(games);
+        final var created = Instant.now();
+        for (int g = 0; g < games; ++g) {
+            gameIdentifiers.add(new NamedUUID(UUID.randomUUID(), created.plusMillis(g).toString()));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeGame() throws JsonProcessingException {
+        return gameWriter.writeValueAsBytes(game);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws JsonProcessingException {
+        return userWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeGameIdentifiers() throws JsonProcessingException {
+        return namedUUIDsWriter.writeValueAsBytes(gameIdentifiers);
+    }
+}
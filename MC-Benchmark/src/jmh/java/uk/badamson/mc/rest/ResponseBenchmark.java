@@ -0,0 +1,61 @@
+package uk.badamson.mc.rest;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.openjdk.jmh.annotations.*;
+import uk.badamson.mc.BenchmarkFixtures;
+import uk.badamson.mc.Game;
+import uk.badamson.mc.Scenario;
+
+import java.util.UUID;
+
+/**
+ * <p>
+ * Conversion of domain objects to the responses of the REST API.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class ResponseBenchmark {
+
+    @Param({"0", "4", "16", "64"})
+    public int players;
+
+    private UUID gameId;
+    private UUID scenarioId;
+    private Game game;
+    private Scenario scenario;
+
+    @Setup
+    public void setUp() {
+        gameId = UUID.randomUUID();
+        scenarioId = UUID.randomUUID();
+        game = BenchmarkFixtures.createGame(players);
+        scenario = BenchmarkFixtures.getAScenario();
+    }
+
+    @Benchmark
+    public GameResponse convertGameToResponse() {
+        return GameResponse.convertToResponse(gameId, scenarioId, game);
+    }
+
+    @Benchmark
+    public ScenarioResponse convertScenarioToResponse() {
+        return ScenarioResponse.convertToResponse(scenarioId, scenario);
+    }
+}
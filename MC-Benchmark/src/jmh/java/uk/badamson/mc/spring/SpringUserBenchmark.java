@@ -0,0 +1,52 @@
+package uk.badamson.mc.spring;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.openjdk.jmh.annotations.*;
+import uk.badamson.mc.BenchmarkFixtures;
+import uk.badamson.mc.User;
+
+/**
+ * <p>
+ * Conversion of users to and from the form used by Spring Security and held in the database,
+ * which is done whenever a user is authenticated.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class SpringUserBenchmark {
+
+    private User user;
+    private SpringUser springUser;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.createUser();
+        springUser = SpringUser.convertToSpring(user);
+    }
+
+    @Benchmark
+    public SpringUser convertToSpring() {
+        return SpringUser.convertToSpring(user);
+    }
+
+    @Benchmark
+    public User convertFromSpring() {
+        return SpringUser.convertFromSpring(springUser);
+    }
+}
@@ -0,0 +1,64 @@
+package uk.badamson.mc.rest;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import uk.badamson.mc.Game;
+
+import javax.annotation.Nonnull;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * <p>
+ * A summary of the state of a game, which is a {@link GameResponse} without the players of the game.
+ * </p>
+ * <p>
+ * Lists of games need only the summaries, which are much smaller than the full games
+ * if the games have many players.
+ * </p>
+ */
+public record GameSummaryResponse(
+        UUID identifier,
+        UUID scenario,
+        @JsonFormat(shape = JsonFormat.Shape.STRING)
+        Instant created,
+        GameResponse.RunStateResponse runState,
+        boolean recruiting
+) {
+
+    /**
+     * <p>
+     * Convert a game to a summary, ignoring the players of the game.
+     * </p>
+     */
+    @Nonnull
+    public static GameSummaryResponse convertToResponse(
+            @Nonnull UUID gameId,
+            @Nonnull UUID scenarioId,
+            @Nonnull Game game) {
+        return new GameSummaryResponse(
+                gameId,
+                scenarioId,
+                game.getCreated(),
+                GameResponse.RunStateResponse.convertToResponse(game.getRunState()),
+                game.isRecruiting()
+        );
+    }
+}
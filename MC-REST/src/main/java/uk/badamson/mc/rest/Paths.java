@@ -19,6 +19,9 @@ package uk.badamson.mc.rest;
  */
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -30,6 +33,8 @@ public final class Paths {
 
     public static final String SELF_PATH = "/api/self";
 
+    public static final String TOKEN_PATH = "/api/token";
+
     public static final String SCENARIOS_PATH = "/api/scenario";
 
     public static final String SCENARIO_PATH_PATTERN = "/api/scenario/{id}";
@@ -38,8 +43,22 @@ public final class Paths {
 
     public static final String GAMES_PATH_PATTERN = "/api/scenario/{scenario}/games";
 
+    public static final String GAMES_LIMIT_PARAM = "limit";
+
+    public static final String GAMES_AFTER_CREATED_PARAM = "afterCreated";
+
+    public static final String GAMES_AFTER_GAME_PARAM = "afterGame";
+
+    public static final String GAMES_PATH = "/api/game";
+
+    public static final String GAME_ID_PARAM = "id";
+
+    public static final String GAME_SUMMARY_PARAM = "summary";
+
     public static final String GAME_PATH_PATTERN = "/api/game/{game}";
 
+    public static final String GAME_EVENTS_PATH_PATTERN = "/api/game/{game}/events";
+
     public static final String GAME_START_PARAM = "start";
 
     public static final String GAME_STOP_PARAM = "stop";
@@ -72,12 +91,121 @@ public final class Paths {
         return "/api/scenario/" + scenario + "/games";
     }
 
+    /**
+     * <p>
+     * Create the path for retrieving one page of the games of a scenario.
+     * </p>
+     * <p>
+     * Games are listed in order of their creation time, with the game identifier breaking ties.
+     * The page starts after the position given by {@code afterCreated} and {@code afterGame},
+     * which should be the creation time (title) and identifier of the last game of the previous page.
+     * The first page has neither.
+     * </p>
+     *
+     * @throws NullPointerException     If {@code scenario} is null
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If only one of {@code afterCreated} and {@code afterGame} is null</li>
+     *                                  <li>If {@code limit} is not positive</li>
+     *                                  </ul>
+     */
+    @Nonnull
+    public static String createPathForPageOfGamesOfScenario(
+            @Nonnull final UUID scenario,
+            @Nullable final Instant afterCreated,
+            @Nullable final UUID afterGame,
+            final int limit) {
+        if ((afterCreated == null) != (afterGame == null)) {
+            throw new IllegalArgumentException("incomplete cursor");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit");
+        }
+        final var path = new StringBuilder(createPathForGamesOfScenario(scenario))
+                .append('?').append(GAMES_LIMIT_PARAM).append('=').append(limit);
+        if (afterCreated != null) {
+            path.append('&').append(GAMES_AFTER_CREATED_PARAM).append('=').append(afterCreated)
+                    .append('&').append(GAMES_AFTER_GAME_PARAM).append('=').append(afterGame);
+        }
+        return path.toString();
+    }
+
+    /**
+     * <p>
+     * Create the path for retrieving summaries, without the players, of one page of the games of a scenario.
+     * </p>
+     * <p>
+     * The pages are as for {@link #createPathForPageOfGamesOfScenario(UUID, Instant, UUID, int)}.
+     * </p>
+     *
+     * @throws NullPointerException     If {@code scenario} is null
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If only one of {@code afterCreated} and {@code afterGame} is null</li>
+     *                                  <li>If {@code limit} is not positive</li>
+     *                                  </ul>
+     */
+    @Nonnull
+    public static String createPathForPageOfGameSummariesOfScenario(
+            @Nonnull final UUID scenario,
+            @Nullable final Instant afterCreated,
+            @Nullable final UUID afterGame,
+            final int limit) {
+        return createPathForPageOfGamesOfScenario(scenario, afterCreated, afterGame, limit)
+                + '&' + GAME_SUMMARY_PARAM;
+    }
+
+    /**
+     * <p>
+     * Create the path for retrieving several games in one request.
+     * </p>
+     *
+     * @throws NullPointerException     If {@code games} is null or has a null element
+     * @throws IllegalArgumentException If {@code games} is empty
+     */
+    @Nonnull
+    public static String createPathForGames(@Nonnull final Collection<UUID> games) {
+        if (games.isEmpty()) {
+            throw new IllegalArgumentException("games");
+        }
+        final var path = new StringBuilder(GAMES_PATH);
+        char separator = '?';
+        for (final var game : games) {
+            Objects.requireNonNull(game, "game");
+            path.append(separator).append(GAME_ID_PARAM).append('=').append(game);
+            separator = '&';
+        }
+        return path.toString();
+    }
+
+    /**
+     * <p>
+     * Create the path for retrieving summaries, without the players, of several games in one request.
+     * </p>
+     *
+     * @throws NullPointerException     If {@code games} is null or has a null element
+     * @throws IllegalArgumentException If {@code games} is empty
+     */
+    @Nonnull
+    public static String createPathForGameSummaries(@Nonnull final Collection<UUID> games) {
+        return createPathForGames(games) + '&' + GAME_SUMMARY_PARAM;
+    }
+
     @Nonnull
     public static String createPathForGame(@Nonnull final UUID game) {
         Objects.requireNonNull(game);
         return "/api/game/" + game;
     }
 
+    /**
+     * <p>
+     * Create the path for subscribing to a stream of server-sent events,
+     * each giving the new state of a game after it has changed.
+     * </p>
+     */
+    @Nonnull
+    public static String createPathForGameEvents(@Nonnull final UUID game) {
+        return createPathForGame(game) + "/events";
+    }
+
     @Nonnull
     public static String createPathForStartingGame(@Nonnull final UUID game) {
         return createPathForGame(game) + "?" + GAME_START_PARAM;
@@ -21,7 +21,9 @@ package uk.badamson.mc;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.SpringBootConfiguration;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.session.SessionAutoConfiguration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 import uk.badamson.mc.presentation.PresentationLayerSpringConfiguration;
 import uk.badamson.mc.repository.RepositoryLayerSpringConfiguration;
@@ -33,11 +35,13 @@ import uk.badamson.mc.service.ServiceLayerSpringConfiguration;
  * </p>
  */
 @SpringBootConfiguration
-@EnableAutoConfiguration
+// The session store is configured by SessionStoreConfiguration
+@EnableAutoConfiguration(exclude = SessionAutoConfiguration.class)
 @Import(value = { MethodSecurityConfiguration.class,
          PresentationLayerSpringConfiguration.class,
          RepositoryLayerSpringConfiguration.class,
          ServiceLayerSpringConfiguration.class })
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class Application {
 
    /**
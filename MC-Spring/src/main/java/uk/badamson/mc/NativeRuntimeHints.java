@@ -0,0 +1,98 @@
+package uk.badamson.mc;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import uk.badamson.mc.repository.GameCreationTimeDTO;
+import uk.badamson.mc.repository.GameDTO;
+import uk.badamson.mc.repository.GameIdentifierDTO;
+import uk.badamson.mc.repository.GameSummaryDTO;
+import uk.badamson.mc.repository.UserGameAssociationDTO;
+import uk.badamson.mc.rest.AuthorityValue;
+import uk.badamson.mc.rest.GameIdentifierResponse;
+import uk.badamson.mc.rest.GameResponse;
+import uk.badamson.mc.rest.GameSummaryResponse;
+import uk.badamson.mc.rest.ScenarioResponse;
+import uk.badamson.mc.rest.TokenResponse;
+import uk.badamson.mc.rest.UserDetailsRequest;
+import uk.badamson.mc.rest.UserResponse;
+import uk.badamson.mc.spring.SpringAuthority;
+import uk.badamson.mc.spring.SpringUser;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * <p>
+ * The reflection that a native image of the server needs,
+ * beyond what Spring AOT processing and the GraalVM reachability metadata of libraries provide.
+ * </p>
+ * <p>
+ * Spring Data reflectively constructs and populates the documents and projections read from MongoDB,
+ * and Jackson reflectively serializes and deserializes the request and response bodies of the REST API,
+ * including those that are nested in collections and streams, which AOT processing does not discover.
+ * The security filter chains need no hints: they are configured through beans,
+ * and their filters and handlers are constructed directly.
+ * </p>
+ */
+public final class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final List<Class<?>> DOCUMENT_TYPES = List.of(
+            GameDTO.class,
+            GameDTO.PlayedCharacterDTO.class,
+            GameDTO.RunStateDTO.class,
+            GameCreationTimeDTO.class,
+            GameIdentifierDTO.class,
+            GameSummaryDTO.class,
+            UserGameAssociationDTO.class,
+            SpringUser.class,
+            SpringAuthority.class
+    );
+
+    static final List<Class<?>> BODY_TYPES = List.of(
+            AuthorityValue.class,
+            GameIdentifierResponse.class,
+            GameResponse.class,
+            GameSummaryResponse.class,
+            uk.badamson.mc.rest.NamedUUID.class,
+            NamedUUID.class,
+            ScenarioResponse.class,
+            TokenResponse.class,
+            UserDetailsRequest.class,
+            UserResponse.class
+    );
+
+    @Override
+    public void registerHints(@Nonnull final RuntimeHints hints, @Nullable final ClassLoader classLoader) {
+        for (final var type : DOCUMENT_TYPES) {
+            hints.reflection().registerType(type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+        final var bindingRegistrar = new BindingReflectionHintsRegistrar();
+        for (final var type : BODY_TYPES) {
+            bindingRegistrar.registerReflectionHints(hints.reflection(), type);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import uk.badamson.mc.spring.SpringAuthority;
+import uk.badamson.mc.spring.SpringUser;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Encodes and decodes signed authentication tokens.
+ * </p>
+ * <p>
+ * A token is a compact binary encoding of its {@link Token} values,
+ * followed by an HMAC-SHA256 signature of that encoding,
+ * each encoded using URL-safe Base 64 and separated by a full stop.
+ * Any server that has the same key can therefore check a token without consulting the database.
+ * </p>
+ */
+final class AuthenticationTokenCodec {
+
+    static final String ALGORITHM = "HmacSHA256";
+    /**
+     * The minimum length of a key, in bytes, which is the length of the HMAC-SHA256 output.
+     */
+    static final int MINIMUM_KEY_LENGTH = 32;
+
+    private static final byte VERSION = 1;
+    private static final char SEPARATOR = '.';
+    /*
+     * The bit that encodes each authority. These are part of the token format, so they must never change,
+     * even if authorities are added, removed or reordered.
+     */
+    private static final Map<SpringAuthority, Integer> AUTHORITY_BITS = new EnumMap<>(Map.of(
+            SpringAuthority.ROLE_PLAYER, 1,
+            SpringAuthority.ROLE_MANAGE_USERS, 1 << 1,
+            SpringAuthority.ROLE_MANAGE_GAMES, 1 << 2));
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+
+    /**
+     * @throws NullPointerException     If {@code key} is null
+     * @throws IllegalArgumentException If {@code key} is shorter than {@value #MINIMUM_KEY_LENGTH} bytes
+     */
+    AuthenticationTokenCodec(@Nonnull final byte[] key) {
+        Objects.requireNonNull(key, "key");
+        if (key.length < MINIMUM_KEY_LENGTH) {
+            throw new IllegalArgumentException("Authentication token key must have at least "
+                    + MINIMUM_KEY_LENGTH + " bytes");
+        }
+        this.key = new SecretKeySpec(key, ALGORITHM);
+    }
+
+    @Nonnull
+    private byte[] sign(@Nonnull final byte[] payload) {
+        try {
+            final var mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Nonnull
+    private static byte[] encodePayload(@Nonnull final Token token) {
+        final var bytes = new ByteArrayOutputStream(64);
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(token.id().getMostSignificantBits());
+            out.writeLong(token.id().getLeastSignificantBits());
+            out.writeLong(token.user().getId().getMostSignificantBits());
+            out.writeLong(token.user().getId().getLeastSignificantBits());
+            out.writeLong(token.expires().getEpochSecond());
+            int authorities = 0;
+            for (final var authority : token.user().getAuthorities()) {
+                authorities |= AUTHORITY_BITS.get(authority);
+            }
+            out.writeInt(authorities);
+            out.writeUTF(token.user().getUsername());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Nullable
+    private static Token decodePayload(@Nonnull final byte[] payload) throws IOException {
+        try (var in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readByte() != VERSION) {
+                return null;
+            }
+            final var id = new UUID(in.readLong(), in.readLong());
+            final var userId = new UUID(in.readLong(), in.readLong());
+            final var expires = Instant.ofEpochSecond(in.readLong());
+            final int authorityBits = in.readInt();
+            final var username = in.readUTF();
+            final Set<SpringAuthority> authorities = EnumSet.noneOf(SpringAuthority.class);
+            int unknownBits = authorityBits;
+            for (final var entry : AUTHORITY_BITS.entrySet()) {
+                if ((authorityBits & entry.getValue()) != 0) {
+                    authorities.add(entry.getKey());
+                    unknownBits &= ~entry.getValue();
+                }
+            }
+            if (unknownBits != 0) {
+                return null;
+            }
+            return new Token(id, new SpringUser(userId, username, null, authorities,
+                    true, true, true, true), expires);
+        }
+    }
+
+    @Nonnull
+    String encode(@Nonnull final Token token) {
+        Objects.requireNonNull(token, "token");
+        final var payload = encodePayload(token);
+        return ENCODER.encodeToString(payload) + SEPARATOR + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * <p>
+     * Decode a token, checking its signature.
+     * </p>
+     * <p>
+     * Does not check whether the token has expired.
+     * </p>
+     *
+     * @return The token values, or null if the token is malformed or its signature is invalid.
+     */
+    @Nullable
+    Token decode(@Nonnull final String encoded) {
+        final int separator = encoded.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            final var payload = DECODER.decode(encoded.substring(0, separator));
+            final var signature = DECODER.decode(encoded.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) {
+                return null;
+            }
+            return decodePayload(payload);
+        } catch (final IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * <p>
+     * The values carried by an authentication token.
+     * </p>
+     *
+     * @param id      A unique identifier for the token, so it can be revoked.
+     * @param user    The authenticated user. Only the ID, username and authorities of the user are recorded.
+     * @param expires The point in time after which the token is no longer valid.
+     */
+    record Token(@Nonnull UUID id, @Nonnull SpringUser user, @Nonnull Instant expires) {
+
+        Token {
+            Objects.requireNonNull(id, "id");
+            Objects.requireNonNull(user, "user");
+            Objects.requireNonNull(expires, "expires");
+        }
+    }
+}
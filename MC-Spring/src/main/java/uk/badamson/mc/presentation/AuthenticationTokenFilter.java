@@ -0,0 +1,105 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.web.filter.OncePerRequestFilter;
+import uk.badamson.mc.rest.Paths;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Authenticate requests that present an {@linkplain AuthenticationTokenService authentication token}
+ * as a {@code Bearer} credential.
+ * </p>
+ * <p>
+ * The authentication is not recorded in the HTTP session.
+ * A request that presents an invalid, expired or revoked token is rejected.
+ * A token can not be used to obtain a new token, so the account of a user is checked at least once
+ * per token lifetime.
+ * </p>
+ */
+final class AuthenticationTokenFilter extends OncePerRequestFilter {
+
+    static final String BEARER_PREFIX = "Bearer ";
+
+    private final SecurityContextHolderStrategy securityContextHolderStrategy
+            = SecurityContextHolder.getContextHolderStrategy();
+    private final AuthenticationTokenService tokenService;
+
+    AuthenticationTokenFilter(@Nonnull final AuthenticationTokenService tokenService) {
+        this.tokenService = Objects.requireNonNull(tokenService, "tokenService");
+    }
+
+    /**
+     * <p>
+     * The encoded token presented by a request.
+     * </p>
+     *
+     * @return The token, or null if the request does not have a {@code Bearer} credential.
+     */
+    @Nullable
+    static String getBearerToken(@Nonnull final HttpServletRequest request) {
+        final var header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        return header.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@Nonnull final HttpServletRequest request) {
+        return !tokenService.isEnabled()
+                || request.getRequestURI().equals(request.getContextPath() + Paths.TOKEN_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @Nonnull final HttpServletRequest request,
+            @Nonnull final HttpServletResponse response,
+            @Nonnull final FilterChain filterChain
+    ) throws ServletException, IOException {
+        final var token = getBearerToken(request);
+        if (token != null) {
+            final var user = tokenService.authenticate(token);
+            if (user == null) {
+                securityContextHolderStrategy.clearContext();
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+            final var context = securityContextHolderStrategy.createEmptyContext();
+            context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                    user, null, user.getAuthorities()));
+            securityContextHolderStrategy.setContext(context);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
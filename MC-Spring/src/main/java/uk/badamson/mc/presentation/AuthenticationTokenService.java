@@ -0,0 +1,129 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import uk.badamson.mc.rest.TokenResponse;
+import uk.badamson.mc.spring.SpringUser;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Issues, checks and revokes signed authentication tokens.
+ * </p>
+ * <p>
+ * A token records the ID, username and authorities of the user it was issued to,
+ * so a server can authenticate a request that presents a token without consulting the database
+ * or the session store. Because of that, a change to a user's authorities, or disabling a user,
+ * takes effect for tokens only when they expire, so tokens should have a short lifetime.
+ * </p>
+ */
+public final class AuthenticationTokenService implements AutoCloseable {
+
+    private final boolean enabled;
+    private final AuthenticationTokenCodec codec;
+    private final TokenRevocationList revocationList;
+    private final Duration lifetime;
+    private final Clock clock;
+
+    AuthenticationTokenService(
+            final boolean enabled,
+            @Nonnull final AuthenticationTokenCodec codec,
+            @Nonnull final TokenRevocationList revocationList,
+            @Nonnull final Duration lifetime,
+            @Nonnull final Clock clock) {
+        this.enabled = enabled;
+        this.codec = Objects.requireNonNull(codec, "codec");
+        this.revocationList = Objects.requireNonNull(revocationList, "revocationList");
+        this.lifetime = Objects.requireNonNull(lifetime, "lifetime");
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * <p>
+     * Whether clients may authenticate using tokens.
+     * </p>
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    @Nonnull
+    TokenResponse issue(@Nonnull final SpringUser user) {
+        final var expires = clock.instant().plus(lifetime);
+        final var token = new AuthenticationTokenCodec.Token(UUID.randomUUID(), user, expires);
+        return new TokenResponse(codec.encode(token), expires);
+    }
+
+    @Nullable
+    private AuthenticationTokenCodec.Token decodeValid(@Nonnull final String encoded) {
+        final var token = codec.decode(encoded);
+        if (token == null || !clock.instant().isBefore(token.expires())) {
+            return null;
+        }
+        return token;
+    }
+
+    /**
+     * <p>
+     * The user that a token authenticates.
+     * </p>
+     *
+     * @return The user, or null if the token is not valid, has expired or has been revoked.
+     * The user has no password.
+     */
+    @Nullable
+    SpringUser authenticate(@Nonnull final String encoded) {
+        final var token = decodeValid(encoded);
+        if (token == null || revocationList.isRevoked(token.id())) {
+            return null;
+        }
+        return token.user();
+    }
+
+    /**
+     * <p>
+     * Prevent a token being used again.
+     * </p>
+     * <p>
+     * Invalid and expired tokens are ignored.
+     * </p>
+     */
+    void revoke(@Nonnull final String encoded) {
+        final var token = decodeValid(encoded);
+        if (token != null) {
+            revocationList.revoke(token.id(), token.expires());
+        }
+    }
+
+    /**
+     * <p>
+     * Stop refreshing the list of revoked tokens.
+     * </p>
+     */
+    @Override
+    public void close() {
+        revocationList.close();
+    }
+}
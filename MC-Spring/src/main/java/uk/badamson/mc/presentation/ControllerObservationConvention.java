@@ -0,0 +1,78 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * <p>
+ * The naming and tagging of the observations of HTTP requests,
+ * which provide the {@code http.server.requests} latency metrics.
+ * </p>
+ * <p>
+ * In addition to the standard tags, observations are tagged with the controller method that handled the request
+ * ({@code handler}, such as {@code GameController.joinGame})
+ * and with the reason given by a {@link ResponseStatusException} thrown by that method
+ * ({@code reason}, such as {@link uk.badamson.mc.rest.Reasons#GAME_STATE_CONFLICT}).
+ * Both have a small, fixed set of values.
+ * </p>
+ */
+public final class ControllerObservationConvention extends DefaultServerRequestObservationConvention {
+
+    static final String HANDLER_KEY = "handler";
+    static final String REASON_KEY = "reason";
+    static final String NONE = "none";
+
+    @Nonnull
+    static String getHandlerName(@Nullable final Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + '.' + method.getMethod().getName();
+        } else {
+            return NONE;
+        }
+    }
+
+    @Nonnull
+    static String getReason(@Nullable final Throwable error) {
+        if (error instanceof ResponseStatusException e && e.getReason() != null) {
+            return e.getReason();
+        } else {
+            return NONE;
+        }
+    }
+
+    @Nonnull
+    @Override
+    public KeyValues getLowCardinalityKeyValues(@Nonnull final ServerRequestObservationContext context) {
+        final var handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        return super.getLowCardinalityKeyValues(context).and(
+                KeyValue.of(HANDLER_KEY, getHandlerName(handler)),
+                KeyValue.of(REASON_KEY, getReason(context.getError()))
+        );
+    }
+}
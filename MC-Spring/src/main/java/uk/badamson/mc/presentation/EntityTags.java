@@ -0,0 +1,206 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import uk.badamson.mc.rest.AuthorityValue;
+import uk.badamson.mc.rest.NamedUUID;
+import uk.badamson.mc.rest.ScenarioResponse;
+import uk.badamson.mc.rest.UserResponse;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Strong entity tags for the resources of the REST API.
+ * </p>
+ * <p>
+ * A tag is a hash of the content of a response, computed from its fields
+ * rather than from its serialized form, so a matching conditional request
+ * can be answered without serializing the response.
+ * Fields are hashed in a fixed order, and unordered collections are sorted first,
+ * so equal responses have equal tags.
+ * </p>
+ * <p>
+ * The tag of a game is instead computed from the version of the stored game,
+ * and the view of the game that the requesting user has,
+ * so a matching conditional request can be answered without retrieving the game.
+ * </p>
+ */
+final class EntityTags {
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final int TAG_LENGTH = 16;
+
+    private EntityTags() {
+        throw new AssertionError("must not instantiate");
+    }
+
+    private static final class Hasher {
+        private final MessageDigest digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * 2);
+
+        Hasher(@Nonnull final String type) {
+            try {
+                digest = MessageDigest.getInstance(ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            add(type);
+        }
+
+        Hasher add(final long value) {
+            buffer.clear();
+            buffer.putLong(value);
+            digest.update(buffer.array(), 0, Long.BYTES);
+            return this;
+        }
+
+        Hasher add(final boolean value) {
+            digest.update(value ? (byte) 1 : (byte) 0);
+            return this;
+        }
+
+        Hasher add(@Nullable final UUID value) {
+            if (value == null) {
+                return add(false);
+            }
+            add(true);
+            return add(value.getMostSignificantBits()).add(value.getLeastSignificantBits());
+        }
+
+        Hasher add(@Nullable final String value) {
+            if (value == null) {
+                return add(false);
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            add(true);
+            add(bytes.length);
+            digest.update(bytes);
+            return this;
+        }
+
+        @Nonnull
+        String finish() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(digest.digest(), TAG_LENGTH));
+        }
+    }
+
+    /**
+     * <p>
+     * The tag of a game, as seen by a given user.
+     * </p>
+     *
+     * @param version The version of the stored game, which changes whenever the game changes.
+     * @param player  The ID of the requesting user, if they see the game as a player,
+     *                or null if they see the game as a game manager.
+     */
+    @Nonnull
+    static String ofGame(@Nonnull final UUID game, final long version, @Nullable final UUID player) {
+        return new Hasher("game")
+                .add(game)
+                .add(version)
+                .add(player)
+                .finish();
+    }
+
+    /**
+     * <p>
+     * Whether the value of an {@code If-None-Match} request header matches a tag,
+     * so the request can be answered with a Not Modified response.
+     * </p>
+     */
+    static boolean matches(@Nullable final String ifNoneMatch, @Nonnull final String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (var candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.strip();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals('"' + tag + '"')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <p>
+     * The tag of a response that has been serialized in advance,
+     * computed from its serialized form.
+     * </p>
+     */
+    @Nonnull
+    static String of(@Nonnull final byte[] content) {
+        final var hasher = new Hasher("content").add(content.length);
+        hasher.digest.update(content);
+        return hasher.finish();
+    }
+
+    @Nonnull
+    static String of(@Nonnull final ScenarioResponse scenario) {
+        final var hasher = new Hasher("scenario")
+                .add(scenario.identifier())
+                .add(scenario.title())
+                .add(scenario.description());
+        final var characters = scenario.characters();
+        hasher.add(characters.size());
+        for (final NamedUUID character : characters) {
+            hasher.add(character.getId()).add(character.getTitle());
+        }
+        return hasher.finish();
+    }
+
+    /**
+     * <p>
+     * The tag of a user.
+     * </p>
+     * <p>
+     * The password is not hashed, so the tag reveals nothing about it.
+     * The password of a user can not be changed through the API,
+     * so it does not distinguish different states of one user.
+     * </p>
+     */
+    @Nonnull
+    static String of(@Nonnull final UserResponse user) {
+        final var hasher = new Hasher("user")
+                .add(user.id())
+                .add(user.username())
+                .add(user.accountNonExpired())
+                .add(user.accountNonLocked())
+                .add(user.credentialsNonExpired())
+                .add(user.enabled());
+        hasher.add(user.authorities().size());
+        user.authorities().stream()
+                .map(AuthorityValue::name)
+                .sorted()
+                .forEachOrdered(hasher::add);
+        return hasher.finish();
+    }
+}
@@ -20,6 +20,8 @@ package uk.badamson.mc.presentation;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -28,11 +30,14 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 import uk.badamson.mc.FindGameResult;
 import uk.badamson.mc.NamedUUID;
 import uk.badamson.mc.rest.GameResponse;
+import uk.badamson.mc.rest.GameSummaryResponse;
 import uk.badamson.mc.rest.Paths;
 import uk.badamson.mc.rest.Reasons;
 import uk.badamson.mc.service.GameSpringService;
@@ -42,12 +47,33 @@ import uk.badamson.mc.spring.SpringAuthority;
 import uk.badamson.mc.spring.SpringUser;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.net.URI;
+import java.time.Instant;
 import java.util.*;
+import java.util.stream.Stream;
 
 @RestController
 public class GameController {
 
+    /**
+     * <p>
+     * The largest number of games that may be requested in one page of games.
+     * </p>
+     */
+    public static final int MAX_GAMES_PAGE_SIZE = 1000;
+
+    /**
+     * <p>
+     * The largest number of games that may be requested in one request for several games.
+     * </p>
+     * <p>
+     * The identifiers of the games are in the query string,
+     * so this limit keeps request lines well within the limits of servers and proxies.
+     * </p>
+     */
+    public static final int MAX_GAMES_BATCH_SIZE = 100;
+
     @Nonnull
     private final GameSpringService gameService;
 
@@ -94,26 +120,164 @@ public class GameController {
         }
     }
 
+    @GetMapping(path = Paths.GAMES_PATH_PATTERN, params = {Paths.GAMES_LIMIT_PARAM})
+    @PreAuthorize("hasRole('MANAGE_GAMES') || hasRole('PLAYER')")
+    @Nonnull
+    public Stream<NamedUUID> getPageOfGameIdentifiersOfScenario(
+            @Nonnull @PathVariable("scenario") final UUID scenario,
+            @RequestParam(Paths.GAMES_LIMIT_PARAM) final int limit,
+            @Nullable @RequestParam(name = Paths.GAMES_AFTER_CREATED_PARAM, required = false) final Instant afterCreated,
+            @Nullable @RequestParam(name = Paths.GAMES_AFTER_GAME_PARAM, required = false) final UUID afterGame) {
+        if (limit <= 0 || MAX_GAMES_PAGE_SIZE < limit || (afterCreated == null) != (afterGame == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, HttpStatus.BAD_REQUEST.getReasonPhrase());
+        }
+        try {
+            return gameService.getGameIdentifiersOfScenario(scenario, afterCreated, afterGame, limit);
+        } catch (final NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.SCENARIO_NOT_FOUND, e);
+        }
+    }
+
+    /**
+     * <p>
+     * Retrieve summaries, without the players, of one page of the games of a scenario.
+     * </p>
+     * <p>
+     * The games are in the same order, and the page has the same parameters, as for
+     * {@link #getPageOfGameIdentifiersOfScenario(UUID, int, Instant, UUID)}.
+     * </p>
+     */
+    @GetMapping(path = Paths.GAMES_PATH_PATTERN, params = {Paths.GAMES_LIMIT_PARAM, Paths.GAME_SUMMARY_PARAM})
+    @PreAuthorize("hasRole('MANAGE_GAMES') || hasRole('PLAYER')")
+    @Nonnull
+    public Stream<GameSummaryResponse> getPageOfGameSummariesOfScenario(
+            @Nonnull @PathVariable("scenario") final UUID scenario,
+            @RequestParam(Paths.GAMES_LIMIT_PARAM) final int limit,
+            @Nullable @RequestParam(name = Paths.GAMES_AFTER_CREATED_PARAM, required = false) final Instant afterCreated,
+            @Nullable @RequestParam(name = Paths.GAMES_AFTER_GAME_PARAM, required = false) final UUID afterGame) {
+        if (limit <= 0 || MAX_GAMES_PAGE_SIZE < limit || (afterCreated == null) != (afterGame == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, HttpStatus.BAD_REQUEST.getReasonPhrase());
+        }
+        try {
+            return gameService.getGameSummariesOfScenario(scenario, afterCreated, afterGame, limit)
+                    .map(e -> GameSummaryResponse.convertToResponse(
+                            e.getKey(), e.getValue().scenarioId(), e.getValue().game()));
+        } catch (final NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.SCENARIO_NOT_FOUND, e);
+        }
+    }
+
+    /**
+     * <p>
+     * Retrieve summaries, without the players, of several games.
+     * </p>
+     * <p>
+     * This is as for {@link #getGames(SpringUser, List)}, but reads and transfers less.
+     * </p>
+     */
+    @GetMapping(path = Paths.GAMES_PATH, params = {Paths.GAME_ID_PARAM, Paths.GAME_SUMMARY_PARAM})
+    @PreAuthorize("hasRole('MANAGE_GAMES') || hasRole('PLAYER')")
+    @Nonnull
+    public Stream<GameSummaryResponse> getGameSummaries(
+            @Nonnull @RequestParam(Paths.GAME_ID_PARAM) final List<UUID> games) {
+        if (games.isEmpty() || MAX_GAMES_BATCH_SIZE < games.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, HttpStatus.BAD_REQUEST.getReasonPhrase());
+        }
+        return gameService.getGameSummaries(games).entrySet().stream()
+                .map(e -> GameSummaryResponse.convertToResponse(
+                        e.getKey(), e.getValue().scenarioId(), e.getValue().game()));
+    }
+
+    /**
+     * <p>
+     * Retrieve the state of a game.
+     * </p>
+     * <p>
+     * The response has a strong entity tag, and must be revalidated before reuse,
+     * so a client polling a game that has not changed receives a Not Modified response,
+     * without a body.
+     * The entity tag is derived from the version of the game,
+     * so a Not Modified response is given without retrieving the state of the game.
+     * </p>
+     */
     @GetMapping(Paths.GAME_PATH_PATTERN)
     @PreAuthorize("hasRole('MANAGE_GAMES') || hasRole('PLAYER')")
     @Nonnull
-    public GameResponse getGame(
+    public ResponseEntity<GameResponse> getGame(
             @Nonnull @AuthenticationPrincipal final SpringUser requestingUser,
-            @Nonnull @PathVariable("game") final UUID game) {
-        final Optional<FindGameResult> findResult;
+            @Nonnull @PathVariable("game") final UUID game,
+            @Nullable @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
+        final var version = gameService.getGameVersion(game)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND));
+        final var player = requestingUser.getAuthorities().contains(SpringAuthority.ROLE_MANAGE_GAMES) ?
+                null : requestingUser.getId();
+        final var eTag = EntityTags.ofGame(game, version, player);
+        if (EntityTags.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(eTag)
+                    .build();
+        }
+        final var response = findGameResponse(gameService, requestingUser, game)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(eTag)
+                .body(response);
+    }
+
+    /**
+     * <p>
+     * Retrieve the states of several games, which would otherwise need one request per game.
+     * </p>
+     * <p>
+     * The games are retrieved together, rather than one at a time.
+     * Games that do not exist are omitted, so the response has no more games than were requested.
+     * Each game is as seen by the requesting user, as for {@link #getGame(SpringUser, UUID, String)}.
+     * </p>
+     */
+    @GetMapping(path = Paths.GAMES_PATH, params = {Paths.GAME_ID_PARAM})
+    @PreAuthorize("hasRole('MANAGE_GAMES') || hasRole('PLAYER')")
+    @Nonnull
+    public Stream<GameResponse> getGames(
+            @Nonnull @AuthenticationPrincipal final SpringUser requestingUser,
+            @Nonnull @RequestParam(Paths.GAME_ID_PARAM) final List<UUID> games) {
+        if (games.isEmpty() || MAX_GAMES_BATCH_SIZE < games.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, HttpStatus.BAD_REQUEST.getReasonPhrase());
+        }
+        final Map<UUID, FindGameResult> found;
         if (requestingUser.getAuthorities().contains(SpringAuthority.ROLE_MANAGE_GAMES)) {
-            findResult = gameService.getGameAsGameManager(game);
+            found = gameService.getGamesAsGameManager(games);
         } else if (requestingUser.getAuthorities().contains(SpringAuthority.ROLE_PLAYER)) {
-            findResult = gameService.getGameAsNonGameManager(game, requestingUser.getId());
+            found = gameService.getGamesAsNonGameManager(games, requestingUser.getId());
         } else {
             throw new IllegalArgumentException("Request not permitted for role");
         }
+        return found.entrySet().stream()
+                .map(e -> GameResponse.convertToResponse(e.getKey(), e.getValue().scenarioId(), e.getValue().game()));
+    }
 
-        if (findResult.isPresent()) {
-            return findResult.map(fr -> GameResponse.convertToResponse(game, fr.scenarioId(), fr.game())).get();
+    /**
+     * <p>
+     * Retrieve the state of a game, as seen by a given user.
+     * </p>
+     *
+     * @throws IllegalArgumentException If the user has neither the role of managing games nor of player.
+     */
+    @Nonnull
+    static Optional<GameResponse> findGameResponse(
+            @Nonnull final GameSpringService gameService,
+            @Nonnull final SpringUser requestingUser,
+            @Nonnull final UUID game) {
+        final Optional<FindGameResult> findResult;
+        if (requestingUser.getAuthorities().contains(SpringAuthority.ROLE_MANAGE_GAMES)) {
+            findResult = gameService.getGameAsGameManager(game);
+        } else if (requestingUser.getAuthorities().contains(SpringAuthority.ROLE_PLAYER)) {
+            findResult = gameService.getGameAsNonGameManager(game, requestingUser.getId());
         } else {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND);
+            throw new IllegalArgumentException("Request not permitted for role");
         }
+        return findResult.map(fr -> GameResponse.convertToResponse(game, fr.scenarioId(), fr.game()));
     }
 
     @PostMapping(path = Paths.GAME_PATH_PATTERN, params = {Paths.GAME_START_PARAM})
@@ -130,6 +294,8 @@ public class GameController {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND, e);
         } catch (final IllegalGameStateException e) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, Reasons.GAME_STATE_CONFLICT, e);
+        } catch (final OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, Reasons.GAME_STATE_CONFLICT, e);
         }
     }
 
@@ -145,6 +311,8 @@ public class GameController {
             return createRedirectResponseForGame(game);
         } catch (final NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND, e);
+        } catch (final OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, Reasons.GAME_STATE_CONFLICT, e);
         }
     }
 
@@ -158,6 +326,8 @@ public class GameController {
             return createRedirectResponseForGame(game);
         } catch (final NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND, e);
+        } catch (final OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, Reasons.GAME_STATE_CONFLICT, e);
         }
     }
 
@@ -199,6 +369,8 @@ public class GameController {
             throw new ResponseStatusException(HttpStatus.CONFLICT, Reasons.GAME_STATE_CONFLICT, e);
         } catch (final UserAlreadyPlayingException e) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, Reasons.USER_STATE_CONFLICT, e);
+        } catch (final OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, Reasons.GAME_STATE_CONFLICT, e);
         }
     }
 
@@ -207,10 +379,7 @@ public class GameController {
     public boolean mayJoinGame(@Nonnull @AuthenticationPrincipal final SpringUser user,
                                @Nonnull @PathVariable("game") final UUID game) {
         Objects.requireNonNull(user, "user");
-        if (gameService.getGameAsGameManager(game).isPresent()) {
-            return gameService.mayUserJoinGame(user.getId(), game);
-        } else {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND);
-        }
+        return gameService.mayUserJoinGameIfPresent(user.getId(), game)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND));
     }
 }
@@ -0,0 +1,69 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uk.badamson.mc.rest.Paths;
+import uk.badamson.mc.rest.Reasons;
+import uk.badamson.mc.spring.SpringUser;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.UUID;
+
+@RestController
+public class GameEventsController {
+
+    @Nonnull
+    private final GameEventsHub hub;
+
+    @Autowired
+    GameEventsController(@Nonnull final GameEventsHub hub) {
+        this.hub = Objects.requireNonNull(hub, "hub");
+    }
+
+    /**
+     * <p>
+     * Subscribe to a stream of server-sent events, each named {@code game}
+     * and carrying the state of the game (as a {@link uk.badamson.mc.rest.GameResponse})
+     * after it has changed.
+     * </p>
+     * <p>
+     * The first event gives the state of the game at the time of subscription.
+     * </p>
+     */
+    @GetMapping(path = Paths.GAME_EVENTS_PATH_PATTERN, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('MANAGE_GAMES') || hasRole('PLAYER')")
+    @Nonnull
+    public SseEmitter subscribeToGame(
+            @Nonnull @AuthenticationPrincipal final SpringUser requestingUser,
+            @Nonnull @PathVariable("game") final UUID game) {
+        return hub.subscribe(requestingUser, game)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND));
+    }
+}
@@ -0,0 +1,243 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uk.badamson.mc.rest.GameResponse;
+import uk.badamson.mc.service.AllGamesChangedEvent;
+import uk.badamson.mc.service.GameChangedEvent;
+import uk.badamson.mc.service.GameSpringService;
+import uk.badamson.mc.spring.SpringAuthority;
+import uk.badamson.mc.spring.SpringUser;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Pushes the new state of a game to the clients that have subscribed to it,
+ * as server-sent events, whenever the game changes.
+ * </p>
+ * <p>
+ * Subscriptions are asynchronous requests, so a subscriber does not hold a thread while waiting for changes.
+ * Changes are pushed using a shared {@link Executor}, rather than the thread that changed the game.
+ * Several changes to a game in quick succession are coalesced into one push of the latest state,
+ * and the states for one game are read one push at a time, without holding any lock.
+ * Each state is then sent to each subscriber as a separate task of the executor,
+ * so a slow client does not delay the others.
+ * Every state is numbered before it is read,
+ * and a subscriber is sent a state only if it has not already been sent a later one,
+ * so subscribers never receive an older state after a newer one.
+ * A subscriber that can not be sent a state is removed.
+ * Each subscriber receives the state of the game as they would see it through
+ * {@link GameController#getGame(SpringUser, UUID, String)}.
+ * </p>
+ */
+@Component
+public class GameEventsHub {
+
+    static final String EVENT_NAME = "game";
+
+    /**
+     * The key of the state seen by all game managers, who all see the same state.
+     */
+    private static final Object GAME_MANAGER_VIEW = new Object();
+
+    private static final class Subscriber {
+        @Nonnull
+        private final SpringUser user;
+        @Nonnull
+        private final SseEmitter emitter;
+        private long lastSent = 0;
+
+        private Subscriber(@Nonnull final SpringUser user, @Nonnull final SseEmitter emitter) {
+            this.user = user;
+            this.emitter = emitter;
+        }
+
+        /**
+         * @return whether the state was sent, or was superseded by a later state.
+         */
+        private synchronized boolean sendIfLatest(final long sequence, @Nonnull final GameResponse response) {
+            if (sequence <= lastSent) {
+                return true;
+            }
+            lastSent = sequence;
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(EVENT_NAME)
+                        .data(response, MediaType.APPLICATION_JSON));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // The client has gone away, or the emitter has already completed.
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+
+    private static final class Topic {
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean pushPending = new AtomicBoolean();
+        private final AtomicBoolean pushing = new AtomicBoolean();
+        private final AtomicLong sequence = new AtomicLong();
+    }
+
+    @Nonnull
+    private final GameSpringService gameService;
+    @Nonnull
+    private final Executor executor;
+    @Nonnull
+    private final Duration timeout;
+    private final Map<UUID, Topic> topics = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GameEventsHub(
+            @Nonnull final GameSpringService gameService,
+            @Nonnull @Qualifier("applicationTaskExecutor") final Executor executor,
+            @Nonnull @Value("${mc.game-events.timeout:PT30M}") final Duration timeout) {
+        this.gameService = Objects.requireNonNull(gameService, "gameService");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.timeout = Objects.requireNonNull(timeout, "timeout");
+    }
+
+    /**
+     * <p>
+     * Subscribe a user to the changes of a game.
+     * </p>
+     * <p>
+     * The current state of the game is sent immediately.
+     * The subscriber is registered before that state is read,
+     * so a change made while the state is being read is also pushed to the subscriber.
+     * </p>
+     *
+     * @return The emitter through which the events are sent,
+     * or empty if the game is not known.
+     */
+    @Nonnull
+    Optional<SseEmitter> subscribe(@Nonnull final SpringUser user, @Nonnull final UUID game) {
+        final var subscriber = new Subscriber(user, new SseEmitter(timeout.toMillis()));
+        final Runnable unsubscribe = () -> unsubscribe(game, subscriber);
+        subscriber.emitter.onCompletion(unsubscribe);
+        subscriber.emitter.onTimeout(unsubscribe);
+        subscriber.emitter.onError(e -> unsubscribe.run());
+        final var topic = topics.compute(game, (k, t) -> {
+            final var result = t == null ? new Topic() : t;
+            result.subscribers.add(subscriber);
+            return result;
+        });
+        final long sequence = topic.sequence.incrementAndGet();
+        final var current = GameController.findGameResponse(gameService, user, game);
+        if (current.isEmpty()) {
+            unsubscribe.run();
+            return Optional.empty();
+        }
+        if (!subscriber.sendIfLatest(sequence, current.get())) {
+            unsubscribe.run();
+        }
+        return Optional.of(subscriber.emitter);
+    }
+
+    private void unsubscribe(@Nonnull final UUID game, @Nonnull final Subscriber subscriber) {
+        topics.computeIfPresent(game, (k, topic) -> {
+            topic.subscribers.remove(subscriber);
+            return topic.subscribers.isEmpty() ? null : topic;
+        });
+    }
+
+    int getSubscriberCount(@Nonnull final UUID game) {
+        final var topic = topics.get(game);
+        return topic == null ? 0 : topic.subscribers.size();
+    }
+
+    @EventListener
+    public void onGameChanged(@Nonnull final GameChangedEvent event) {
+        final var game = event.game();
+        final var topic = topics.get(game);
+        if (topic != null) {
+            topic.pushPending.set(true);
+            schedulePushes(game, topic);
+        }
+    }
+
+    @EventListener
+    public void onAllGamesChanged(@Nonnull final AllGamesChangedEvent event) {
+        topics.forEach((game, topic) -> {
+            topic.pushPending.set(true);
+            schedulePushes(game, topic);
+        });
+    }
+
+    private void schedulePushes(@Nonnull final UUID game, @Nonnull final Topic topic) {
+        if (topic.pushing.compareAndSet(false, true)) {
+            executor.execute(() -> pushAll(game, topic));
+        }
+    }
+
+    private void pushAll(@Nonnull final UUID game, @Nonnull final Topic topic) {
+        try {
+            while (topic.pushPending.getAndSet(false)) {
+                push(game, topic);
+            }
+        } finally {
+            topic.pushing.set(false);
+        }
+        // A change might have been notified after the last check but before pushing was cleared.
+        if (topic.pushPending.get()) {
+            schedulePushes(game, topic);
+        }
+    }
+
+    private void push(@Nonnull final UUID game, @Nonnull final Topic topic) {
+        final long sequence = topic.sequence.incrementAndGet();
+        final Map<Object, Optional<GameResponse>> responses = new HashMap<>();
+        for (final var subscriber : topic.subscribers) {
+            final var user = subscriber.user;
+            final var response = responses.computeIfAbsent(getView(user),
+                    v -> GameController.findGameResponse(gameService, user, game));
+            if (response.isPresent()) {
+                executor.execute(() -> {
+                    if (!subscriber.sendIfLatest(sequence, response.get())) {
+                        unsubscribe(game, subscriber);
+                    }
+                });
+            } else {
+                unsubscribe(game, subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    @Nonnull
+    private static Object getView(@Nonnull final SpringUser user) {
+        return user.getAuthorities().contains(SpringAuthority.ROLE_MANAGE_GAMES) ? GAME_MANAGER_VIEW : user.getId();
+    }
+}
@@ -0,0 +1,169 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>
+ * A {@link SessionRepository} that writes sessions to an underlying repository only if they have changed.
+ * </p>
+ * <p>
+ * Every request updates the last accessed time of its session,
+ * so the underlying repository would otherwise write every session that every request uses.
+ * Instead, a session is written only if it is new, if its attributes, identifier or maximum inactive interval
+ * have been changed, or if its last accessed time has advanced by at least a given interval since it was written.
+ * So the stored expiry time of a session can be earlier than its true expiry time by up to that interval.
+ * Like other Spring Session repositories, changes to a session attribute are detected only if the attribute is
+ * {@linkplain Session#setAttribute(String, Object) set}.
+ * </p>
+ */
+final class LazySessionRepository<S extends Session>
+        implements SessionRepository<LazySessionRepository.TrackedSession<S>> {
+
+    private final SessionRepository<S> delegate;
+    private final Duration accessWriteInterval;
+
+    LazySessionRepository(@Nonnull final SessionRepository<S> delegate, @Nonnull final Duration accessWriteInterval) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.accessWriteInterval = Objects.requireNonNull(accessWriteInterval, "accessWriteInterval");
+    }
+
+    @Nonnull
+    @Override
+    public TrackedSession<S> createSession() {
+        return new TrackedSession<>(delegate.createSession(), null);
+    }
+
+    @Override
+    public void save(@Nonnull final TrackedSession<S> session) {
+        if (session.mustBeSaved(accessWriteInterval)) {
+            delegate.save(session.delegate);
+            session.saved();
+        }
+    }
+
+    @Nullable
+    @Override
+    public TrackedSession<S> findById(@Nonnull final String id) {
+        final var session = delegate.findById(id);
+        return session == null ? null : new TrackedSession<>(session, session.getLastAccessedTime());
+    }
+
+    @Override
+    public void deleteById(@Nonnull final String id) {
+        delegate.deleteById(id);
+    }
+
+    static final class TrackedSession<S extends Session> implements Session {
+
+        private final S delegate;
+        @Nullable
+        private Instant savedLastAccessedTime;
+        private boolean changed;
+
+        private TrackedSession(@Nonnull final S delegate, @Nullable final Instant savedLastAccessedTime) {
+            this.delegate = delegate;
+            this.savedLastAccessedTime = savedLastAccessedTime;
+        }
+
+        private boolean mustBeSaved(@Nonnull final Duration accessWriteInterval) {
+            return changed || savedLastAccessedTime == null
+                    || accessWriteInterval.compareTo(
+                    Duration.between(savedLastAccessedTime, delegate.getLastAccessedTime())) <= 0;
+        }
+
+        private void saved() {
+            changed = false;
+            savedLastAccessedTime = delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            changed = true;
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(final String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(final String attributeName, final Object attributeValue) {
+            changed = true;
+            delegate.setAttribute(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(final String attributeName) {
+            changed = true;
+            delegate.removeAttribute(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(final Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(final Duration interval) {
+            changed = true;
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
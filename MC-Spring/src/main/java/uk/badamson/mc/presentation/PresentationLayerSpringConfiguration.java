@@ -19,11 +19,14 @@ package uk.badamson.mc.presentation;
  */
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
+import javax.annotation.Nonnull;
+
 /**
  * <p>
  * The Spring Boot configuration for the presentation layer of the Mission
@@ -31,12 +34,24 @@ import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
  * </p>
  */
 @ComponentScan("uk.badamson.mc.presentation")
-@Import(value = {SecurityConfiguration.class})
+@Import(value = {SecurityConfiguration.class, SessionStoreConfiguration.class})
 public class PresentationLayerSpringConfiguration {
 
     @Bean
     public ObjectMapper objectMapper() {
-        return Jackson2ObjectMapperBuilder.json().build();
+        return Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new UuidJsonModule())
+                .build();
+    }
+
+    @Bean
+    public ControllerObservationConvention controllerObservationConvention() {
+        return new ControllerObservationConvention();
+    }
+
+    @Bean
+    public RequestRejectionMetrics requestRejectionMetrics(@Nonnull final MeterRegistry meterRegistry) {
+        return new RequestRejectionMetrics(meterRegistry);
     }
 
 }
@@ -0,0 +1,96 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Counts the requests that controllers reject because of conflicts
+ * ({@value #CONFLICTS}) and missing resources ({@value #NOT_FOUND}),
+ * tagged by the controller method and the reason for the rejection.
+ * </p>
+ * <p>
+ * This is consulted before any other {@link HandlerExceptionResolver},
+ * but never resolves an exception itself.
+ * It also records the exception on the observation of the request,
+ * so the {@link ControllerObservationConvention} can tag the latency metrics with the reason.
+ * </p>
+ */
+public final class RequestRejectionMetrics implements HandlerExceptionResolver, Ordered {
+
+    public static final String CONFLICTS = "mc.http.server.conflicts";
+    public static final String NOT_FOUND = "mc.http.server.not.found";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestRejectionMetrics(@Nonnull final MeterRegistry meterRegistry) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry");
+    }
+
+    @Nullable
+    private static String getCounterName(@Nonnull final ResponseStatusException exception) {
+        final var status = exception.getStatusCode().value();
+        if (status == HttpStatus.CONFLICT.value()) {
+            return CONFLICTS;
+        } else if (status == HttpStatus.NOT_FOUND.value()) {
+            return NOT_FOUND;
+        } else {
+            return null;
+        }
+    }
+
+    @Nullable
+    @Override
+    public ModelAndView resolveException(
+            @Nonnull final HttpServletRequest request,
+            @Nonnull final HttpServletResponse response,
+            @Nullable final Object handler,
+            @Nonnull final Exception exception) {
+        ServerHttpObservationFilter.findObservationContext(request)
+                .ifPresent(context -> context.setError(exception));
+        if (exception instanceof ResponseStatusException e) {
+            final var name = getCounterName(e);
+            if (name != null) {
+                meterRegistry.counter(name,
+                        ControllerObservationConvention.HANDLER_KEY, ControllerObservationConvention.getHandlerName(handler),
+                        ControllerObservationConvention.REASON_KEY, ControllerObservationConvention.getReason(e)
+                ).increment();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,111 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uk.badamson.mc.rest.ScenarioResponse;
+import uk.badamson.mc.service.ScenarioSpringService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * <p>
+ * The scenarios, serialized as JSON in advance.
+ * </p>
+ * <p>
+ * Scenarios do not change during the lifetime of the process,
+ * so the catalogue reads and serializes them all once, when it is constructed,
+ * and holds an immutable index of the serialized forms and their entity tags.
+ * Providing a scenario, or the list of scenarios, therefore neither reads the scenarios
+ * nor serializes anything.
+ * </p>
+ */
+@Component
+public final class ScenarioCatalogue {
+
+    /**
+     * <p>
+     * The JSON serialization of a resource and its entity tag.
+     * </p>
+     * <p>
+     * The content must not be modified.
+     * </p>
+     */
+    @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"}, justification = "shared immutable content")
+    public record Entry(@Nonnull byte[] content, @Nonnull String entityTag) {
+
+        public Entry {
+            Objects.requireNonNull(content, "content");
+            Objects.requireNonNull(entityTag, "entityTag");
+        }
+    }
+
+    private final Entry all;
+    private final Map<UUID, Entry> scenarios;
+
+    @Autowired
+    public ScenarioCatalogue(
+            @Nonnull final ScenarioSpringService service,
+            @Nonnull final ObjectMapper objectMapper) {
+        Objects.requireNonNull(service, "service");
+        Objects.requireNonNull(objectMapper, "objectMapper");
+        try {
+            final var allContent = objectMapper.writeValueAsBytes(service.getNamedScenarioIdentifiers().toList());
+            all = new Entry(allContent, EntityTags.of(allContent));
+            final Map<UUID, Entry> index = new HashMap<>();
+            for (final var id : service.getScenarioIdentifiers().toList()) {
+                final var scenario = service.getScenario(id).orElseThrow();
+                final var response = ScenarioResponse.convertToResponse(id, scenario);
+                index.put(id, new Entry(objectMapper.writeValueAsBytes(response), EntityTags.of(response)));
+            }
+            scenarios = Map.copyOf(index);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalStateException("Can not serialize scenarios", e);
+        }
+    }
+
+    /**
+     * <p>
+     * The list of the identifiers and titles of all the scenarios.
+     * </p>
+     */
+    @Nonnull
+    public Entry getAll() {
+        return all;
+    }
+
+    /**
+     * <p>
+     * The scenario that has a given identifier, or null if there is no such scenario.
+     * </p>
+     */
+    @Nullable
+    public Entry getScenario(@Nonnull final UUID id) {
+        return scenarios.get(id);
+    }
+}
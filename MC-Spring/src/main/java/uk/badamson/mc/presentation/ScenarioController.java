@@ -19,49 +19,70 @@ package uk.badamson.mc.presentation;
  */
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
-import uk.badamson.mc.NamedUUID;
-import uk.badamson.mc.Scenario;
 import uk.badamson.mc.rest.Paths;
 import uk.badamson.mc.rest.Reasons;
-import uk.badamson.mc.rest.ScenarioResponse;
-import uk.badamson.mc.service.ScenarioSpringService;
 
 import javax.annotation.Nonnull;
+import java.time.Duration;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Stream;
 
+/**
+ * <p>
+ * The REST API for scenarios.
+ * </p>
+ * <p>
+ * Responses are provided from the {@link ScenarioCatalogue}, already serialized.
+ * Scenarios change only when the server is upgraded,
+ * so responses may be cached for {@linkplain #MAX_AGE a day},
+ * and thereafter revalidated using their entity tags.
+ * </p>
+ */
 @RestController
 public class ScenarioController {
 
+    static final Duration MAX_AGE = Duration.ofDays(1);
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(MAX_AGE).cachePublic();
+
     @Nonnull
-    private final ScenarioSpringService service;
+    private final ScenarioCatalogue catalogue;
 
     @Autowired
-    public ScenarioController(@Nonnull final ScenarioSpringService service) {
-        this.service = Objects.requireNonNull(service);
+    public ScenarioController(@Nonnull final ScenarioCatalogue catalogue) {
+        this.catalogue = Objects.requireNonNull(catalogue);
+    }
+
+    @Nonnull
+    private static ResponseEntity<byte[]> createResponse(@Nonnull final ScenarioCatalogue.Entry entry) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CACHE_CONTROL)
+                .eTag(entry.entityTag())
+                .body(entry.content());
     }
 
-    @GetMapping(Paths.SCENARIOS_PATH)
+    @GetMapping(value = Paths.SCENARIOS_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
     @Nonnull
-    public Stream<NamedUUID> getAll() {
-        return service.getNamedScenarioIdentifiers();
+    public ResponseEntity<byte[]> getAll() {
+        return createResponse(catalogue.getAll());
     }
 
-    @GetMapping(Paths.SCENARIO_PATH_PATTERN)
+    @GetMapping(value = Paths.SCENARIO_PATH_PATTERN, produces = MediaType.APPLICATION_JSON_VALUE)
     @Nonnull
-    public ScenarioResponse getScenario(@Nonnull @PathVariable("id") final UUID scenarioId) {
-        final Optional<Scenario> scenario = service.getScenario(scenarioId);
-        if (scenario.isPresent()) {
-            return scenario.map(s -> ScenarioResponse.convertToResponse(scenarioId, s)).get();
-        } else {
+    public ResponseEntity<byte[]> getScenario(@Nonnull @PathVariable("id") final UUID scenarioId) {
+        final var entry = catalogue.getScenario(scenarioId);
+        if (entry == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.SCENARIO_NOT_FOUND);
         }
+        return createResponse(entry);
     }
 }
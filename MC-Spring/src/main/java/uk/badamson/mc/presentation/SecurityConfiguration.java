@@ -23,21 +23,35 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.context.DelegatingSecurityContextRepository;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.security.web.csrf.*;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import uk.badamson.mc.service.UserSpringService;
+import uk.badamson.mc.spring.SpringUserCache;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.function.Supplier;
 
 /**
@@ -101,10 +115,92 @@ public class SecurityConfiguration {
         }
     }
 
+    /**
+     * <p>
+     * Authenticate users through the {@link UserSpringService},
+     * but avoid looking up recently authenticated users again.
+     * </p>
+     * <p>
+     * Clients using HTTP Basic authentication present their credentials with every request.
+     * </p>
+     */
+    @Bean
+    public DaoAuthenticationProvider authenticationProvider(
+            @Nonnull final UserSpringService userService,
+            @Nonnull final PasswordEncoder passwordEncoder,
+            @Nonnull final SpringUserCache userCache) {
+        final var provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(userService);
+        provider.setUserCache(userCache);
+        return provider;
+    }
+
+    /**
+     * <p>
+     * If sessions are held in the shared {@linkplain SessionStoreConfiguration session store},
+     * record authenticated users in the HTTP session by name only, so sessions are compact.
+     * Otherwise, record the security context in the HTTP session as a whole,
+     * as Spring Security does by default,
+     * which avoids retrieving the user for each request.
+     * </p>
+     */
+    @Bean
+    public SecurityContextRepository securityContextRepository(
+            @Nonnull final UserSpringService userService,
+            @Nonnull final SpringUserCache userCache,
+            @Nonnull @Value("${mc.session.store:" + SessionStoreConfiguration.MEMORY + "}") final String sessionStore) {
+        if (SessionStoreConfiguration.isMongoDbStore(sessionStore)) {
+            return new SessionUserSecurityContextRepository(userService, userCache);
+        } else {
+            return new DelegatingSecurityContextRepository(
+                    new RequestAttributeSecurityContextRepository(),
+                    new HttpSessionSecurityContextRepository());
+        }
+    }
+
+    /**
+     * <p>
+     * Issue and check signed authentication tokens, if the {@code mc.authentication.token.enabled} property is set.
+     * </p>
+     * <p>
+     * All servers must be given the same {@code mc.authentication.token.secret} (Base 64 encoded) key,
+     * for them to accept tokens issued by each other. Without that, each server uses a random key.
+     * The key must have at least {@value AuthenticationTokenCodec#MINIMUM_KEY_LENGTH} bytes,
+     * so the server does not start with a weak key.
+     * </p>
+     */
+    @Bean
+    public AuthenticationTokenService authenticationTokenService(
+            @Nonnull final MongoOperations mongoOperations,
+            @Value("${mc.authentication.token.enabled:false}") final boolean enabled,
+            @Nonnull @Value("${mc.authentication.token.secret:}") final String secret,
+            @Nonnull @Value("${mc.authentication.token.lifetime:PT15M}") final Duration lifetime,
+            @Nonnull @Value("${mc.authentication.token.revocation-refresh-interval:PT10S}")
+            final Duration revocationRefreshInterval) {
+        final byte[] key;
+        if (secret.isBlank()) {
+            key = new byte[AuthenticationTokenCodec.MINIMUM_KEY_LENGTH];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = Base64.getDecoder().decode(secret.trim());
+        }
+        final var codec = new AuthenticationTokenCodec(key);
+        final var clock = Clock.systemUTC();
+        final var revocationList = new TokenRevocationList(mongoOperations, revocationRefreshInterval, clock);
+        if (enabled) {
+            revocationList.createIndex();
+            revocationList.start();
+        }
+        return new AuthenticationTokenService(enabled, codec, revocationList, lifetime, clock);
+    }
+
     @Bean
     @Order(2)
-    public SecurityFilterChain  authenticatedPathsSecurityFilterChain(final HttpSecurity http)
+    public SecurityFilterChain  authenticatedPathsSecurityFilterChain(
+            final HttpSecurity http,
+            @Nonnull final SecurityContextRepository securityContextRepository)
             throws Exception {
+        configureSecurityContext(http, securityContextRepository);
         return http.securityMatcher("/api/user/**", "/api/game/**").authorizeHttpRequests(authorize -> authorize
                 .anyRequest().authenticated()
         ).build();
@@ -112,30 +208,62 @@ public class SecurityConfiguration {
 
     @Bean
     @Order(3)
-    public SecurityFilterChain permitAllPathsSecurityFilterChain(final HttpSecurity http)
+    public SecurityFilterChain permitAllPathsSecurityFilterChain(
+            final HttpSecurity http,
+            @Nonnull final SecurityContextRepository securityContextRepository)
             throws Exception {
+        configureSecurityContext(http, securityContextRepository);
         return http.securityMatcher("/login", "/logout").authorizeHttpRequests(authorize -> authorize
                 .anyRequest().permitAll()
         ).build();
     }
 
 
-    private static void configureCsrfProtection(final HttpSecurity http)
+    private static void configureCsrfProtection(
+            final HttpSecurity http,
+            final AuthenticationTokenService tokenService)
             throws Exception {
+        // Browsers do not add Bearer credentials to forged requests.
+        // Requests for a new token are not exempt, because browsers do add Basic credentials to forged requests.
+        final RequestMatcher authenticationTokenRequests = request -> tokenService.isEnabled()
+                && AuthenticationTokenFilter.getBearerToken(request) != null;
         http.csrf(customizer ->
                         customizer.csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
                                 .csrfTokenRequestHandler(new SpaCsrfTokenRequestHandler())
+                                .ignoringRequestMatchers(authenticationTokenRequests)
                 )
                 .addFilterAfter(new CsrfCookieFilter(), BasicAuthenticationFilter.class);
     }
 
-    private static void configureHttpBasic(final HttpSecurity http)
+    private static void configureAuthenticationTokens(
+            final HttpSecurity http,
+            final AuthenticationTokenService tokenService)
+            throws Exception {
+        http.addFilterBefore(new AuthenticationTokenFilter(tokenService), BasicAuthenticationFilter.class)
+                .logout(customizer -> customizer.addLogoutHandler((request, response, authentication) -> {
+                    final var token = AuthenticationTokenFilter.getBearerToken(request);
+                    if (token != null && tokenService.isEnabled()) {
+                        tokenService.revoke(token);
+                    }
+                }));
+    }
+
+    private static void configureSecurityContext(
+            final HttpSecurity http,
+            final SecurityContextRepository securityContextRepository)
+            throws Exception {
+        http.securityContext(customizer -> customizer.securityContextRepository(securityContextRepository));
+    }
+
+    private static void configureHttpBasic(
+            final HttpSecurity http,
+            final SecurityContextRepository securityContextRepository)
             throws Exception {
         // Store the authentication, despite Basic Authentication being stateless, to create a session.
         http.httpBasic(customizer -> customizer.addObjectPostProcessor(new ObjectPostProcessor<BasicAuthenticationFilter>() {
                     @Override
                     public <O extends BasicAuthenticationFilter> O postProcess(O filter) {
-                        filter.setSecurityContextRepository(new HttpSessionSecurityContextRepository());
+                        filter.setSecurityContextRepository(securityContextRepository);
                         return filter;
                     }
                 })
@@ -144,9 +272,14 @@ public class SecurityConfiguration {
 
     @Bean
     @Order(1)
-    public SecurityFilterChain pathlessSecurityFilterChain(HttpSecurity http) throws Exception {
-        configureHttpBasic(http);
-        configureCsrfProtection(http);
+    public SecurityFilterChain pathlessSecurityFilterChain(
+            HttpSecurity http,
+            @Nonnull final SecurityContextRepository securityContextRepository,
+            @Nonnull final AuthenticationTokenService tokenService) throws Exception {
+        configureSecurityContext(http, securityContextRepository);
+        configureAuthenticationTokens(http, tokenService);
+        configureHttpBasic(http, securityContextRepository);
+        configureCsrfProtection(http, tokenService);
         // login and logout pages are configured by default
         return http.build();
     }
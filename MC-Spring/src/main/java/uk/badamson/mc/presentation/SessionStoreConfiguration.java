@@ -0,0 +1,103 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.session.data.mongo.MongoIndexedSessionRepository;
+import org.springframework.session.web.http.CookieHttpSessionIdResolver;
+import org.springframework.session.web.http.DefaultCookieSerializer;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * <p>
+ * Spring configuration for the store of HTTP sessions.
+ * </p>
+ * <p>
+ * The {@code mc.session.store} property selects the store.
+ * The default, {@value #MEMORY}, keeps sessions in the memory of the servlet container,
+ * so clients must always be routed to the same server.
+ * The alternative, {@value #MONGODB}, keeps sessions in the {@value #COLLECTION} collection of the
+ * MongoDB database, so several servers can share the sessions, with any load-balancing policy.
+ * MongoDB removes expired sessions, using a TTL index.
+ * Sessions are {@linkplain LazySessionRepository written only if they have changed},
+ * or if their last accessed time has advanced by at least the {@code mc.session.access-write-interval}.
+ * </p>
+ * <p>
+ * The store is selected at run-time, rather than by conditional configuration,
+ * so the configuration can be processed ahead-of-time.
+ * </p>
+ */
+@Configuration
+public class SessionStoreConfiguration {
+
+    public static final String MEMORY = "memory";
+    public static final String MONGODB = "mongodb";
+    public static final String COLLECTION = MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME;
+    public static final String COOKIE_NAME = "JSESSIONID";
+
+    static boolean isMongoDbStore(@Nonnull final String store) {
+        return switch (store) {
+            case MEMORY -> false;
+            case MONGODB -> true;
+            default -> throw new IllegalArgumentException("Unknown mc.session.store " + store);
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SessionRepositoryFilter<?>> sessionRepositoryFilterRegistration(
+            @Nonnull final MongoOperations mongoOperations,
+            @Nonnull final ApplicationEventPublisher eventPublisher,
+            @Nonnull @Value("${mc.session.store:" + MEMORY + "}") final String store,
+            @Nonnull @Value("${server.servlet.session.timeout:PT30M}") final Duration timeout,
+            @Nonnull @Value("${mc.session.access-write-interval:PT1M}") final Duration accessWriteInterval) {
+        final boolean enabled = isMongoDbStore(store);
+
+        final var mongoRepository = new MongoIndexedSessionRepository(mongoOperations);
+        mongoRepository.setDefaultMaxInactiveInterval(timeout);
+        mongoRepository.setApplicationEventPublisher(eventPublisher);
+        if (enabled) {
+            // Creates the TTL index
+            mongoRepository.afterPropertiesSet();
+        }
+
+        final var cookieSerializer = new DefaultCookieSerializer();
+        cookieSerializer.setCookieName(COOKIE_NAME);
+        final var sessionIdResolver = new CookieHttpSessionIdResolver();
+        sessionIdResolver.setCookieSerializer(cookieSerializer);
+
+        final var filter = new SessionRepositoryFilter<>(
+                new LazySessionRepository<>(mongoRepository, accessWriteInterval));
+        filter.setHttpSessionIdResolver(sessionIdResolver);
+
+        final FilterRegistrationBean<SessionRepositoryFilter<?>> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SessionRepositoryFilter.DEFAULT_ORDER);
+        registration.setDispatcherTypes(DispatcherType.ASYNC, DispatcherType.ERROR, DispatcherType.REQUEST);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+}
@@ -0,0 +1,168 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * <p>
+ * A {@link SecurityContextRepository} that records only the name of the authenticated user
+ * in the HTTP session.
+ * </p>
+ * <p>
+ * Unlike the {@link HttpSessionSecurityContextRepository}, the session does not hold a serialized
+ * {@link SecurityContext}, so the session is small and cheap to store outside the server,
+ * and it does not hold the password hash of the user.
+ * The authenticated user is instead reconstructed from a {@link UserCache} or, failing that,
+ * a {@link UserDetailsService}. The user is no longer authenticated if their account
+ * has since been deleted, disabled, locked or expired.
+ * The session attribute is written only if the authenticated user changes.
+ * </p>
+ */
+final class SessionUserSecurityContextRepository implements SecurityContextRepository {
+
+    static final String USERNAME_ATTRIBUTE = SessionUserSecurityContextRepository.class.getName() + ".USERNAME";
+
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+    private final SecurityContextHolderStrategy securityContextHolderStrategy
+            = SecurityContextHolder.getContextHolderStrategy();
+    private final UserDetailsService userDetailsService;
+    private final UserCache userCache;
+
+    SessionUserSecurityContextRepository(
+            @Nonnull final UserDetailsService userDetailsService,
+            @Nonnull final UserCache userCache) {
+        this.userDetailsService = Objects.requireNonNull(userDetailsService, "userDetailsService");
+        this.userCache = Objects.requireNonNull(userCache, "userCache");
+    }
+
+    @Nullable
+    private static String getSessionUsername(@Nonnull final HttpServletRequest request) {
+        final var session = request.getSession(false);
+        return session == null ? null : (String) session.getAttribute(USERNAME_ATTRIBUTE);
+    }
+
+    @Nullable
+    private UserDetails findUser(@Nonnull final String username) {
+        var user = userCache.getUserFromCache(username);
+        if (user == null) {
+            try {
+                user = userDetailsService.loadUserByUsername(username);
+            } catch (final UsernameNotFoundException e) {
+                return null;
+            }
+            userCache.putUserInCache(user);
+        }
+        if (user.isEnabled() && user.isAccountNonLocked()
+                && user.isAccountNonExpired() && user.isCredentialsNonExpired()) {
+            return user;
+        } else {
+            return null;
+        }
+    }
+
+    @Nullable
+    private SecurityContext readSecurityContext(@Nonnull final HttpServletRequest request) {
+        final var username = getSessionUsername(request);
+        if (username == null) {
+            return null;
+        }
+        final var user = findUser(username);
+        if (user == null) {
+            return null;
+        }
+        final var context = securityContextHolderStrategy.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                user, null, user.getAuthorities()));
+        return context;
+    }
+
+    @Override
+    @Deprecated
+    @SuppressWarnings("deprecation")
+    public SecurityContext loadContext(@Nonnull final HttpRequestResponseHolder requestResponseHolder) {
+        return loadDeferredContext(requestResponseHolder.getRequest()).get();
+    }
+
+    @Override
+    public DeferredSecurityContext loadDeferredContext(@Nonnull final HttpServletRequest request) {
+        return new DeferredSecurityContext() {
+            private SecurityContext context;
+            private boolean generated;
+
+            @Override
+            public SecurityContext get() {
+                if (context == null) {
+                    context = readSecurityContext(request);
+                    generated = context == null;
+                    if (generated) {
+                        context = securityContextHolderStrategy.createEmptyContext();
+                    }
+                }
+                return context;
+            }
+
+            @Override
+            public boolean isGenerated() {
+                get();
+                return generated;
+            }
+        };
+    }
+
+    @Override
+    public void saveContext(
+            @Nonnull final SecurityContext context,
+            @Nonnull final HttpServletRequest request,
+            @Nonnull final HttpServletResponse response) {
+        final var authentication = context.getAuthentication();
+        final var sessionUsername = getSessionUsername(request);
+        if (authentication == null || trustResolver.isAnonymous(authentication)) {
+            if (sessionUsername != null) {
+                request.getSession().removeAttribute(USERNAME_ATTRIBUTE);
+            }
+        } else if (!authentication.getName().equals(sessionUsername)) {
+            request.getSession().setAttribute(USERNAME_ATTRIBUTE, authentication.getName());
+        }
+    }
+
+    @Override
+    public boolean containsContext(@Nonnull final HttpServletRequest request) {
+        return getSessionUsername(request) != null;
+    }
+}
@@ -0,0 +1,97 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.www.BasicAuthenticationConverter;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import uk.badamson.mc.rest.Paths;
+import uk.badamson.mc.rest.TokenResponse;
+import uk.badamson.mc.spring.SpringUser;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * <p>
+ * The REST API for obtaining {@linkplain AuthenticationTokenService authentication tokens}.
+ * </p>
+ * <p>
+ * The requesting user must authenticate using their password, with HTTP Basic credentials in the request itself.
+ * Those credentials are checked by this controller, even if the request was already authenticated,
+ * so neither a session nor an authentication token can be used to obtain a token.
+ * Otherwise a stolen token could be renewed indefinitely, defeating its expiry and revocation.
+ * </p>
+ */
+@RestController
+public class TokenController {
+
+    private static final String PASSWORD_REQUIRED = "Password authentication required";
+
+    private final BasicAuthenticationConverter basicAuthenticationConverter = new BasicAuthenticationConverter();
+    @Nonnull
+    private final AuthenticationTokenService tokenService;
+    @Nonnull
+    private final AuthenticationProvider passwordAuthenticationProvider;
+
+    @Autowired
+    public TokenController(
+            @Nonnull final AuthenticationTokenService tokenService,
+            @Nonnull final AuthenticationProvider passwordAuthenticationProvider) {
+        this.tokenService = Objects.requireNonNull(tokenService);
+        this.passwordAuthenticationProvider = Objects.requireNonNull(passwordAuthenticationProvider);
+    }
+
+    @Nonnull
+    private SpringUser authenticateWithPassword(@Nonnull final HttpServletRequest request) {
+        try {
+            final UsernamePasswordAuthenticationToken credentials = basicAuthenticationConverter.convert(request);
+            if (credentials != null
+                    && passwordAuthenticationProvider.authenticate(credentials).getPrincipal() instanceof final SpringUser user) {
+                return user;
+            }
+        } catch (final AuthenticationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, PASSWORD_REQUIRED, e);
+        }
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, PASSWORD_REQUIRED);
+    }
+
+    @PostMapping(Paths.TOKEN_PATH)
+    @PreAuthorize("isAuthenticated()")
+    @Nonnull
+    public ResponseEntity<TokenResponse> issueToken(@Nonnull final HttpServletRequest request) {
+        if (!tokenService.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        final var user = authenticateWithPassword(request);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(tokenService.issue(user));
+    }
+}
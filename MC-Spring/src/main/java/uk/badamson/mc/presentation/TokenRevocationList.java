@@ -0,0 +1,142 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import javax.annotation.Nonnull;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * The authentication tokens that have been revoked before they expire.
+ * </p>
+ * <p>
+ * Revocations are recorded in the {@value #COLLECTION} collection of the database, so all servers learn of them.
+ * Each server holds a copy of the revocations in memory,
+ * and a background thread refreshes that copy from the database once per refresh interval,
+ * so checking a token never needs a database query, and never waits for a refresh.
+ * A token revoked by a different server can therefore continue to be accepted for up to the refresh interval.
+ * The database removes revocations after the token expires, using a TTL index.
+ * </p>
+ */
+final class TokenRevocationList implements AutoCloseable {
+
+    static final String COLLECTION = "revokedTokens";
+    static final String REVOKED_FIELD = "revoked";
+    static final String EXPIRES_FIELD = "expires";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    // Allows for differences between the clocks of the servers.
+    private static final Duration CLOCK_SKEW_ALLOWANCE = Duration.ofMinutes(1);
+
+    private final MongoOperations mongoOperations;
+    private final Duration refreshInterval;
+    private final Clock clock;
+    private final Map<UUID, Instant> revoked = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final var thread = new Thread(runnable, "token-revocation-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Guarded by this
+    private Instant refreshedSince = Instant.EPOCH;
+
+    TokenRevocationList(
+            @Nonnull final MongoOperations mongoOperations,
+            @Nonnull final Duration refreshInterval,
+            @Nonnull final Clock clock) {
+        this.mongoOperations = Objects.requireNonNull(mongoOperations, "mongoOperations");
+        this.refreshInterval = Objects.requireNonNull(refreshInterval, "refreshInterval");
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * <p>
+     * Create the TTL index of the collection, if it does not already exist.
+     * </p>
+     */
+    void createIndex() {
+        mongoOperations.indexOps(COLLECTION).ensureIndex(
+                new Index(EXPIRES_FIELD, Sort.Direction.ASC).expire(Duration.ZERO));
+    }
+
+    void revoke(@Nonnull final UUID token, @Nonnull final Instant expires) {
+        Objects.requireNonNull(token, "token");
+        Objects.requireNonNull(expires, "expires");
+        revoked.put(token, expires);
+        mongoOperations.save(new Document("_id", token)
+                        .append(REVOKED_FIELD, Date.from(clock.instant()))
+                        .append(EXPIRES_FIELD, Date.from(expires)),
+                COLLECTION);
+    }
+
+    boolean isRevoked(@Nonnull final UUID token) {
+        return revoked.containsKey(token);
+    }
+
+    /**
+     * <p>
+     * Start refreshing the copy of the revocations in the background,
+     * beginning immediately.
+     * </p>
+     */
+    void start() {
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void refresh() {
+        final var now = clock.instant();
+        try {
+            revoked.values().removeIf(expires -> expires.isBefore(now));
+            final var query = Query.query(Criteria.where(REVOKED_FIELD).gte(Date.from(refreshedSince)));
+            for (final var document : mongoOperations.find(query, Document.class, COLLECTION)) {
+                revoked.put(document.get("_id", UUID.class), document.getDate(EXPIRES_FIELD).toInstant());
+            }
+            refreshedSince = now.minus(CLOCK_SKEW_ALLOWANCE);
+        } catch (final DataAccessException e) {
+            // Try again at the next refresh; the scheduled task must not throw, or it would not be repeated.
+            LOGGER.warn("Unable to refresh the revoked authentication tokens", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+}
@@ -20,6 +20,7 @@ package uk.badamson.mc.presentation;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -88,9 +89,13 @@ public class UserController {
     @GetMapping(Paths.USER_PATH_PATTERN)
     @PreAuthorize("hasRole('MANAGE_USERS')")
     @Nonnull
-    public UserResponse getUser(@Nonnull @PathVariable("id") final UUID id) {
-        return service.getUser(id)
+    public ResponseEntity<UserResponse> getUser(@Nonnull @PathVariable("id") final UUID id) {
+        final var response = service.getUser(id)
                 .map(UserResponse::convertToResponse)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.USER_NOT_FOUND));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(EntityTags.of(response))
+                .body(response);
     }
 }
@@ -0,0 +1,302 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.UUIDDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * <p>
+ * A Jackson module for writing and reading UUIDs as JSON strings without creating intermediate strings.
+ * </p>
+ * <p>
+ * UUIDs, including the keys of the map of players of a game, are written directly
+ * into the output buffer of the generator as their canonical 36 character form.
+ * UUID strings are parsed directly from the input buffer of the parser.
+ * The JSON is identical to that produced and accepted by the standard Jackson handling of UUIDs,
+ * to which reading falls back for anything other than a canonical UUID string.
+ * </p>
+ */
+public final class UuidJsonModule extends SimpleModule {
+
+    static final int LENGTH = 36;
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    public UuidJsonModule() {
+        super(UuidJsonModule.class.getSimpleName());
+        addSerializer(UUID.class, new UuidSerializer());
+        addKeySerializer(UUID.class, new UuidKeySerializer());
+        addDeserializer(UUID.class, new UuidDeserializer());
+    }
+
+    private static void format(final long value, final int digits, @Nonnull final byte[] buffer, final int offset) {
+        long v = value;
+        for (int i = offset + digits - 1; offset <= i; --i) {
+            buffer[i] = HEX_DIGITS[(int) (v & 0xF)];
+            v >>>= 4;
+        }
+    }
+
+    private static void format(final long value, final int digits, @Nonnull final char[] buffer, final int offset) {
+        long v = value;
+        for (int i = offset + digits - 1; offset <= i; --i) {
+            buffer[i] = (char) HEX_DIGITS[(int) (v & 0xF)];
+            v >>>= 4;
+        }
+    }
+
+    static void format(@Nonnull final UUID uuid, @Nonnull final byte[] buffer, final int offset) {
+        final long msb = uuid.getMostSignificantBits();
+        final long lsb = uuid.getLeastSignificantBits();
+        format(msb >>> 32, 8, buffer, offset);
+        buffer[offset + 8] = '-';
+        format(msb >>> 16, 4, buffer, offset + 9);
+        buffer[offset + 13] = '-';
+        format(msb, 4, buffer, offset + 14);
+        buffer[offset + 18] = '-';
+        format(lsb >>> 48, 4, buffer, offset + 19);
+        buffer[offset + 23] = '-';
+        format(lsb, 12, buffer, offset + 24);
+    }
+
+    static void format(@Nonnull final UUID uuid, @Nonnull final char[] buffer, final int offset) {
+        final long msb = uuid.getMostSignificantBits();
+        final long lsb = uuid.getLeastSignificantBits();
+        format(msb >>> 32, 8, buffer, offset);
+        buffer[offset + 8] = '-';
+        format(msb >>> 16, 4, buffer, offset + 9);
+        buffer[offset + 13] = '-';
+        format(msb, 4, buffer, offset + 14);
+        buffer[offset + 18] = '-';
+        format(lsb >>> 48, 4, buffer, offset + 19);
+        buffer[offset + 23] = '-';
+        format(lsb, 12, buffer, offset + 24);
+    }
+
+    private static int parseHexDigit(final char c) {
+        if ('0' <= c && c <= '9') {
+            return c - '0';
+        } else if ('a' <= c && c <= 'f') {
+            return c - 'a' + 10;
+        } else if ('A' <= c && c <= 'F') {
+            return c - 'A' + 10;
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * <p>
+     * Parse the canonical form of a UUID.
+     * </p>
+     *
+     * @return the UUID, or null if the characters are not the canonical form of a UUID.
+     */
+    static UUID parse(@Nonnull final char[] chars, final int offset, final int length) {
+        if (length != LENGTH
+                || chars[offset + 8] != '-' || chars[offset + 13] != '-'
+                || chars[offset + 18] != '-' || chars[offset + 23] != '-') {
+            return null;
+        }
+        long msb = 0;
+        long lsb = 0;
+        int digits = 0;
+        for (int i = offset, end = offset + LENGTH; i < end; ++i) {
+            final char c = chars[i];
+            if (c == '-') {
+                continue;
+            }
+            final int digit = parseHexDigit(c);
+            if (digit < 0) {
+                return null;
+            }
+            if (digits < 16) {
+                msb = (msb << 4) | digit;
+            } else {
+                lsb = (lsb << 4) | digit;
+            }
+            ++digits;
+        }
+        return digits == 32 ? new UUID(msb, lsb) : null;
+    }
+
+    /**
+     * <p>
+     * The canonical text of a UUID, which Jackson generators can copy directly into their output buffers.
+     * </p>
+     * <p>
+     * The text has only ASCII characters that do not need escaping,
+     * so its quoted and unquoted forms are the same.
+     * </p>
+     */
+    static final class UuidText implements SerializableString {
+
+        private final UUID uuid;
+
+        UuidText(@Nonnull final UUID uuid) {
+            this.uuid = uuid;
+        }
+
+        @Override
+        public String getValue() {
+            return uuid.toString();
+        }
+
+        @Override
+        public int charLength() {
+            return LENGTH;
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            final var chars = new char[LENGTH];
+            format(uuid, chars, 0);
+            return chars;
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            final var bytes = new byte[LENGTH];
+            format(uuid, bytes, 0);
+            return bytes;
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return asUnquotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(final byte[] buffer, final int offset) {
+            return appendUnquotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(final char[] buffer, final int offset) {
+            return appendUnquoted(buffer, offset);
+        }
+
+        @Override
+        public int appendUnquotedUTF8(final byte[] buffer, final int offset) {
+            if (buffer.length < offset + LENGTH) {
+                return -1;
+            }
+            format(uuid, buffer, offset);
+            return LENGTH;
+        }
+
+        @Override
+        public int appendUnquoted(final char[] buffer, final int offset) {
+            if (buffer.length < offset + LENGTH) {
+                return -1;
+            }
+            format(uuid, buffer, offset);
+            return LENGTH;
+        }
+
+        @Override
+        public int writeQuotedUTF8(final OutputStream out) throws IOException {
+            return writeUnquotedUTF8(out);
+        }
+
+        @Override
+        public int writeUnquotedUTF8(final OutputStream out) throws IOException {
+            out.write(asUnquotedUTF8());
+            return LENGTH;
+        }
+
+        @Override
+        public int putQuotedUTF8(final ByteBuffer buffer) {
+            return putUnquotedUTF8(buffer);
+        }
+
+        @Override
+        public int putUnquotedUTF8(final ByteBuffer buffer) {
+            if (buffer.remaining() < LENGTH) {
+                return -1;
+            }
+            buffer.put(asUnquotedUTF8());
+            return LENGTH;
+        }
+
+        @Override
+        public String toString() {
+            return getValue();
+        }
+    }
+
+    static final class UuidSerializer extends StdScalarSerializer<UUID> {
+
+        UuidSerializer() {
+            super(UUID.class);
+        }
+
+        @Override
+        public void serialize(final UUID value, final JsonGenerator gen, final SerializerProvider provider)
+                throws IOException {
+            gen.writeString(new UuidText(value));
+        }
+    }
+
+    static final class UuidKeySerializer extends JsonSerializer<UUID> {
+
+        @Override
+        public void serialize(final UUID value, final JsonGenerator gen, final SerializerProvider provider)
+                throws IOException {
+            gen.writeFieldName(new UuidText(value));
+        }
+    }
+
+    static final class UuidDeserializer extends StdScalarDeserializer<UUID> {
+
+        private final UUIDDeserializer fallback = new UUIDDeserializer();
+
+        UuidDeserializer() {
+            super(UUID.class);
+        }
+
+        @Override
+        public UUID deserialize(final JsonParser p, final DeserializationContext ctxt) throws IOException {
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                final var uuid = parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                if (uuid != null) {
+                    return uuid;
+                }
+            }
+            return fallback.deserialize(p, ctxt);
+        }
+    }
+}
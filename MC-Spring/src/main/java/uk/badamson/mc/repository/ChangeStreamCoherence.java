@@ -0,0 +1,291 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListener;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.util.ErrorHandler;
+import uk.badamson.mc.spring.SpringUser;
+import uk.badamson.mc.spring.SpringUserCache;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Keeps the process-wide caches of the repository layer coherent with changes made by other servers,
+ * by tailing MongoDB change streams of the games, users and current games of users.
+ * </p>
+ * <p>
+ * Every change discards the cached values for the changed record,
+ * including changes made by this server, which costs only one extra read after each change.
+ * A {@link RepositoryChangeEvent} is then published, so push subscribers can be told of the change.
+ * While the change stream of a collection is {@linkplain #isActive(RepositoryChangeEvent.Kind) active},
+ * those events therefore also report the changes made by this server.
+ * </p>
+ * <p>
+ * The change streams start from the time the server starts,
+ * because a newly started server has empty caches, so it has no stale values to discard.
+ * The position in each change stream (its resume token) is held in memory.
+ * If a change stream fails, it is resumed from its last position, after a delay,
+ * so no changes are missed and the caches need not be flushed.
+ * Only if a position is no longer available in the database's history
+ * are the corresponding caches flushed.
+ * Change streams require the database to be a replica set;
+ * without one, cached values can be stale until they expire.
+ * </p>
+ */
+public final class ChangeStreamCoherence implements SmartLifecycle {
+
+    // MongoDB error codes
+    static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeStreamCoherence.class);
+    private static final Duration INITIAL_RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAXIMUM_RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final MessageListenerContainer container;
+    private final List<CollectionStream> streams;
+    private volatile boolean running;
+
+    public ChangeStreamCoherence(
+            @Nonnull final MongoTemplate mongoTemplate,
+            @Nonnull final ApplicationEventPublisher eventPublisher,
+            @Nonnull final GameDTOCache gameCache,
+            @Nonnull final SpringUserCache userCache,
+            @Nonnull final UserGameAssociationCache currentUserGameCache,
+            final boolean enabled) {
+        Objects.requireNonNull(mongoTemplate, "mongoTemplate");
+        this.eventPublisher = Objects.requireNonNull(eventPublisher, "eventPublisher");
+        Objects.requireNonNull(gameCache, "gameCache");
+        Objects.requireNonNull(userCache, "userCache");
+        Objects.requireNonNull(currentUserGameCache, "currentUserGameCache");
+        this.enabled = enabled;
+        this.container = new DefaultMessageListenerContainer(mongoTemplate);
+        this.streams = List.of(
+                new CollectionStream(RepositoryChangeEvent.Kind.GAME,
+                        mongoTemplate.getCollectionName(GameDTO.class),
+                        gameCache::invalidate, gameCache::invalidateAll),
+                new CollectionStream(RepositoryChangeEvent.Kind.USER,
+                        mongoTemplate.getCollectionName(SpringUser.class),
+                        userCache::removeUserFromCacheById, userCache::removeAllUsersFromCache),
+                new CollectionStream(RepositoryChangeEvent.Kind.CURRENT_USER_GAME,
+                        mongoTemplate.getCollectionName(UserGameAssociationDTO.class),
+                        currentUserGameCache::invalidate, currentUserGameCache::invalidateAll)
+        );
+    }
+
+    /**
+     * <p>
+     * The unique ID of the record that a change stream event concerns.
+     * </p>
+     *
+     * @return The ID, or null if the event does not concern one record identified by a UUID,
+     * such as dropping the collection.
+     */
+    @Nullable
+    static UUID getRecordId(@Nullable final BsonDocument documentKey) {
+        final var key = documentKey == null ? null : documentKey.get("_id");
+        if (key != null && key.isBinary()
+                && key.asBinary().getType() == BsonBinarySubType.UUID_STANDARD.getValue()) {
+            return key.asBinary().asUuid();
+        }
+        return null;
+    }
+
+    /**
+     * <p>
+     * The MongoDB error code of the cause of a failure.
+     * </p>
+     *
+     * @return The code, or null if the failure was not reported by MongoDB.
+     */
+    @Nullable
+    static Integer getErrorCode(@Nonnull final Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof final MongoException e) {
+                return e.getCode();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <p>
+     * Whether changes to the records of a given kind are currently being reported
+     * by {@link RepositoryChangeEvent}s, including changes made by this server.
+     * </p>
+     * <p>
+     * While a change stream is failing, or if change streams are not available, this is false,
+     * so changes made by this server must be reported by other means.
+     * </p>
+     */
+    public boolean isActive(@Nonnull final RepositoryChangeEvent.Kind kind) {
+        Objects.requireNonNull(kind, "kind");
+        return running && streams.stream().anyMatch(stream -> stream.kind == kind && stream.isActive());
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        for (final var stream : streams) {
+            stream.subscribe();
+        }
+        container.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        container.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private final class CollectionStream
+            implements MessageListener<ChangeStreamDocument<Document>, Document>, ErrorHandler {
+
+        private final RepositoryChangeEvent.Kind kind;
+        private final String collection;
+        private final Consumer<UUID> invalidate;
+        private final Runnable invalidateAll;
+        @Nullable
+        private volatile BsonDocument resumeToken;
+        @Nullable
+        private volatile Subscription subscription;
+        private volatile boolean supported = true;
+        private volatile Duration retryDelay = INITIAL_RETRY_DELAY;
+
+        private CollectionStream(
+                @Nonnull final RepositoryChangeEvent.Kind kind,
+                @Nonnull final String collection,
+                @Nonnull final Consumer<UUID> invalidate,
+                @Nonnull final Runnable invalidateAll) {
+            this.kind = kind;
+            this.collection = collection;
+            this.invalidate = invalidate;
+            this.invalidateAll = invalidateAll;
+        }
+
+        private synchronized void subscribe() {
+            final var previous = subscription;
+            if (previous != null) {
+                container.remove(previous);
+            }
+            var request = ChangeStreamRequest.builder(this).collection(collection);
+            final var token = resumeToken;
+            if (token != null) {
+                request = request.resumeAfter(token);
+            }
+            subscription = container.register(request.build(), Document.class, this);
+        }
+
+        private boolean isActive() {
+            final var current = subscription;
+            return supported && current != null && current.isActive();
+        }
+
+        private void changed(@Nullable final UUID id) {
+            if (id == null) {
+                invalidateAll.run();
+            } else {
+                invalidate.accept(id);
+            }
+            eventPublisher.publishEvent(new RepositoryChangeEvent(kind, id));
+        }
+
+        @Override
+        public void onMessage(@Nonnull final Message<ChangeStreamDocument<Document>, Document> message) {
+            final var event = message.getRaw();
+            if (event == null) {
+                return;
+            }
+            try {
+                changed(getRecordId(event.getDocumentKey()));
+            } catch (final RuntimeException e) {
+                // Must not be reported to the error handler, which would restart the stream.
+                LOGGER.warn("Failed to handle a change of {}", collection, e);
+            }
+            resumeToken = event.getResumeToken();
+            retryDelay = INITIAL_RETRY_DELAY;
+        }
+
+        @Override
+        public void handleError(@Nonnull final Throwable failure) {
+            if (!running) {
+                return;
+            }
+            final var code = getErrorCode(failure);
+            if (code != null && code == CHANGE_STREAM_NOT_SUPPORTED) {
+                LOGGER.warn("Change streams are not available; cached values of {} will be used until they expire",
+                        collection, failure);
+                supported = false;
+                invalidateAll.run();
+                return;
+            }
+            if (code != null && code == CHANGE_STREAM_HISTORY_LOST) {
+                // Changes have been missed, so any cached value might be stale.
+                resumeToken = null;
+                changed(null);
+            }
+            final var delay = retryDelay;
+            final var doubled = delay.multipliedBy(2);
+            retryDelay = doubled.compareTo(MAXIMUM_RETRY_DELAY) < 0 ? doubled : MAXIMUM_RETRY_DELAY;
+            LOGGER.warn("Change stream of {} failed; resuming in {}", collection, delay, failure);
+            CompletableFuture.runAsync(() -> {
+                if (running) {
+                    subscribe();
+                }
+            }, CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -30,6 +30,6 @@ import java.util.UUID;
  * </p>
  */
 public interface CurrentUserGameSpringRepository
-        extends CrudRepository<UserGameAssociationDTO, UUID> {
+        extends CrudRepository<UserGameAssociationDTO, UUID>, CurrentUserGameSpringRepositoryCustom {
 
 }
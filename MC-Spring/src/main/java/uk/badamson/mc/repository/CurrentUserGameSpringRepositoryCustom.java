@@ -0,0 +1,40 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import javax.annotation.Nonnull;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Operations on the repository of {@linkplain UserGameAssociationDTO current games of users}
+ * that change only some fields, rather than saving a whole association.
+ * </p>
+ */
+public interface CurrentUserGameSpringRepositoryCustom {
+
+    /**
+     * <p>
+     * Set the current game of a user, creating the association if the user does not yet have one.
+     * </p>
+     *
+     * @throws NullPointerException If any argument is null
+     */
+    void setGame(@Nonnull UUID user, @Nonnull UUID game);
+}
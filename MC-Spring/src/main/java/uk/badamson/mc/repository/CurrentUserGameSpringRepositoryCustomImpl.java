@@ -0,0 +1,55 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * <p>
+ * The implementation of the {@link CurrentUserGameSpringRepositoryCustom} fragment
+ * of the {@link CurrentUserGameSpringRepository}, which Spring Data finds by its name.
+ * </p>
+ */
+final class CurrentUserGameSpringRepositoryCustomImpl implements CurrentUserGameSpringRepositoryCustom {
+
+    private final MongoOperations mongoOperations;
+
+    @Autowired
+    CurrentUserGameSpringRepositoryCustomImpl(@Nonnull MongoOperations mongoOperations) {
+        this.mongoOperations = Objects.requireNonNull(mongoOperations);
+    }
+
+    @Override
+    public void setGame(@Nonnull UUID user, @Nonnull UUID game) {
+        Objects.requireNonNull(user, "user");
+        Objects.requireNonNull(game, "game");
+        mongoOperations.upsert(
+                Query.query(Criteria.where("_id").is(user)),
+                Update.update("game", game),
+                UserGameAssociationDTO.class);
+    }
+}
@@ -0,0 +1,47 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.springframework.data.annotation.Id;
+
+import javax.annotation.Nonnull;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * <p>
+ * A projection of a {@link GameDTO} that has only its identifier and creation time.
+ * </p>
+ * <p>
+ * Reading only these fields avoids transferring and converting the list of players of each game.
+ * </p>
+ */
+public record GameCreationTimeDTO(
+        @Id
+        UUID identifier,
+        Instant created
+) {
+
+    @Nonnull
+    static Map.Entry<UUID, Instant> convertFromDTO(@Nonnull GameCreationTimeDTO dto) {
+        return new AbstractMap.SimpleImmutableEntry<>(dto.identifier(), dto.created());
+    }
+}
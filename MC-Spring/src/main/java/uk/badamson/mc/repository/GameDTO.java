@@ -20,18 +20,35 @@ package uk.badamson.mc.repository;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import uk.badamson.mc.Game;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.time.Instant;
 import java.util.AbstractMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * <p>
+ * The persistent form of a {@link Game}.
+ * </p>
+ * <p>
+ * The {@link #version()} is used for optimistic locking:
+ * an update of a game is conditional on the stored game having the version that was read,
+ * so a read-modify-write of a game can not silently lose a concurrent update.
+ * Spring Data sets the version when a game is first saved.
+ * </p>
+ */
 @Document(collection = "game")
+@CompoundIndex(name = "scenario_created_id", def = "{'scenario': 1, 'created': 1, '_id': 1}")
 @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "DTO")
 public record GameDTO(
         @Id
@@ -40,20 +57,77 @@ public record GameDTO(
         Instant created,
         RunStateDTO runState,
         Boolean recruiting,
-        List<PlayedCharacterDTO> users
+        List<PlayedCharacterDTO> users,
+        @Version
+        Long version
 ) {
     @Nonnull
     static GameDTO convertToDTO(@Nonnull UUID gameId, @Nonnull UUID scenarioId, @Nonnull Game game) {
+        return convertToDTO(gameId, scenarioId, game, null);
+    }
+
+    @Nonnull
+    static GameDTO convertToDTO(
+            @Nonnull UUID gameId, @Nonnull UUID scenarioId, @Nonnull Game game, @Nullable Long version) {
         return new GameDTO(
                 gameId,
                 scenarioId,
                 game.getCreated(),
                 RunStateDTO.convertToDTO(game.getRunState()),
                 game.isRecruiting(),
-                convertToUsersDTO(game.getUsers())
+                convertToUsersDTO(game.getUsers()),
+                version
         );
     }
 
+    @Nonnull
+    static Set<PlayedCharacterDTO> getUserSet(@Nonnull GameDTO dto) {
+        return dto.users() == null ? Set.of() : Set.copyOf(dto.users());
+    }
+
+    /**
+     * <p>
+     * Whether two states of a game are the same,
+     * ignoring their {@linkplain #version() versions} and the order of their {@linkplain #users() users}.
+     * </p>
+     */
+    static boolean isSameState(@Nonnull GameDTO a, @Nonnull GameDTO b) {
+        return Objects.equals(a.identifier, b.identifier)
+                && Objects.equals(a.scenario, b.scenario)
+                && Objects.equals(a.created, b.created)
+                && a.runState == b.runState
+                && Objects.equals(a.recruiting, b.recruiting)
+                && getUserSet(a).equals(getUserSet(b));
+    }
+
+    /**
+     * <p>
+     * Find the users that a change of a game adds to the game, if that is the only change.
+     * </p>
+     *
+     * @return The users that {@code after} has but {@code before} does not,
+     * or null if the change does more than add users, or adds no users.
+     * The {@linkplain #version() versions} are not compared.
+     */
+    @Nullable
+    static List<PlayedCharacterDTO> findAddedUsers(@Nonnull GameDTO before, @Nonnull GameDTO after) {
+        if (!Objects.equals(before.identifier, after.identifier)
+                || !Objects.equals(before.scenario, after.scenario)
+                || !Objects.equals(before.created, after.created)
+                || before.runState != after.runState
+                || isRecruiting(before) != isRecruiting(after)) {
+            return null;
+        }
+        final var usersBefore = getUserSet(before);
+        if (after.users == null || !getUserSet(after).containsAll(usersBefore)) {
+            return null;
+        }
+        final var added = after.users.stream()
+                .filter(u -> !usersBefore.contains(u))
+                .toList();
+        return added.isEmpty() ? null : added;
+    }
+
     private static List<PlayedCharacterDTO> convertToUsersDTO(Map<UUID, UUID> users) {
         return users.entrySet().stream()
                 .map(PlayedCharacterDTO::convertToDTO)
@@ -65,7 +139,7 @@ public record GameDTO(
         return new Game(
                 dto.created(),
                 RunStateDTO.convertFromDTO(dto.runState()),
-                dto.recruiting() != null && dto.recruiting(),
+                isRecruiting(dto),
                 convertFromUsersDTO(dto.users())
         );
     }
@@ -80,6 +154,20 @@ public record GameDTO(
         }
     }
 
+    /**
+     * <p>
+     * Whether a game is recruiting, treating a missing {@linkplain #recruiting() flag} as not recruiting.
+     * </p>
+     */
+    static boolean isRecruiting(@Nonnull GameDTO dto) {
+        return dto.recruiting() != null && dto.recruiting();
+    }
+
+    @Nonnull
+    public GameDTO withVersion(@Nullable Long version) {
+        return new GameDTO(identifier, scenario, created, runState, recruiting, users, version);
+    }
+
     public enum RunStateDTO {
         WAITING_TO_START, RUNNING, STOPPED;
 
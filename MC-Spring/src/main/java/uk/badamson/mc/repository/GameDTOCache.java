@@ -0,0 +1,178 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A process-wide, bounded cache of the games read from the database.
+ * </p>
+ * <p>
+ * Unlike the cache of an {@link uk.badamson.mc.repository.MCSpringRepositoryAdapter.AdapterContext},
+ * which lasts only as long as the context, this cache is shared by all contexts,
+ * and so by all requests.
+ * It holds the immutable {@link GameDTO} values, rather than the (mutable) games converted from them.
+ * Entries are evicted when the cache is full, and a fixed time after they were loaded,
+ * which limits how stale an entry can become if the database is changed other than through this process.
+ * Lists of all the games are not cached, because one such entry would hold every game,
+ * so the maximum size would not bound the memory used;
+ * listings instead use the paged and summary queries of the {@link GameSpringRepository}.
+ * </p>
+ * <p>
+ * Values are loaded from the database outside any lock, so a thread reading the database
+ * does not block other threads, and does not pin the carrier of a virtual thread.
+ * Instead, each load registers a marker for the game it is loading before reading the database,
+ * invalidating a game discards its marker,
+ * and a loaded value is added to the cache only if its marker is still present.
+ * So invalidating an entry after writing to the database
+ * ensures that no subsequent read provides the value from before the write,
+ * while loads of other games are unaffected.
+ * Markers are held only while loads are in progress, so they do not need a bound.
+ * </p>
+ */
+public final class GameDTOCache implements MeterBinder {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+
+    private final Cache<UUID, GameDTO> games;
+    private final ConcurrentMap<UUID, Object> loadMarkers = new ConcurrentHashMap<>();
+
+    /**
+     * @throws NullPointerException     If {@code expireAfterWrite} is null
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If {@code maximumSize} is negative</li>
+     *                                  <li>If {@code expireAfterWrite} is negative</li>
+     *                                  </ul>
+     */
+    public GameDTOCache(final long maximumSize, @Nonnull final Duration expireAfterWrite) {
+        Objects.requireNonNull(expireAfterWrite, "expireAfterWrite");
+        games = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public GameDTOCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_WRITE);
+    }
+
+    private void putIfCurrent(@Nonnull final UUID id, @Nonnull final GameDTO value, @Nonnull final Object marker) {
+        games.asMap().compute(id, (k, old) -> loadMarkers.remove(k, marker) ? value : old);
+    }
+
+    @Nonnull
+    Optional<GameDTO> find(@Nonnull final UUID id, @Nonnull final Function<UUID, Optional<GameDTO>> loader) {
+        final var cached = games.getIfPresent(id);
+        if (cached != null) {
+            RepositoryCallStatistics.recordCacheHits(1);
+            return Optional.of(cached);
+        }
+        final var marker = new Object();
+        loadMarkers.put(id, marker);
+        try {
+            RepositoryCallStatistics.recordRepositoryCall();
+            final var loaded = loader.apply(id);
+            loaded.ifPresent(dto -> putIfCurrent(id, dto, marker));
+            return loaded;
+        } finally {
+            loadMarkers.remove(id, marker);
+        }
+    }
+
+    /**
+     * <p>
+     * Find several games, using one call of the {@code loader} for all those that are not cached.
+     * </p>
+     *
+     * @return the games that exist, indexed by their IDs.
+     */
+    @Nonnull
+    Map<UUID, GameDTO> findAll(
+            @Nonnull final Collection<UUID> ids,
+            @Nonnull final Function<Iterable<UUID>, Iterable<GameDTO>> loader) {
+        final Map<UUID, GameDTO> result = new HashMap<>(games.getAllPresent(ids));
+        final List<UUID> missing = ids.stream()
+                .filter(id -> !result.containsKey(id))
+                .distinct()
+                .toList();
+        RepositoryCallStatistics.recordCacheHits(result.size());
+        if (!missing.isEmpty()) {
+            final var marker = new Object();
+            missing.forEach(id -> loadMarkers.put(id, marker));
+            try {
+                RepositoryCallStatistics.recordRepositoryCall();
+                for (final var dto : loader.apply(missing)) {
+                    result.put(dto.identifier(), dto);
+                    putIfCurrent(dto.identifier(), dto, marker);
+                }
+            } finally {
+                missing.forEach(id -> loadMarkers.remove(id, marker));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>
+     * Discard any cached value of the game with a given ID.
+     * </p>
+     * <p>
+     * This must be called after the game has been changed in the database.
+     * </p>
+     */
+    void invalidate(@Nonnull final UUID id) {
+        loadMarkers.remove(id);
+        games.invalidate(id);
+    }
+
+    /**
+     * <p>
+     * Discard all cached values.
+     * </p>
+     */
+    public void invalidateAll() {
+        loadMarkers.clear();
+        games.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(@Nonnull final MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, games, "games");
+    }
+}
@@ -18,10 +18,129 @@ package uk.badamson.mc.repository;
  * along with MC.  If not, see <https://www.gnu.org/licenses/>.
  */
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import javax.annotation.Nonnull;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface GameSpringRepository extends CrudRepository<GameDTO, UUID> {
+public interface GameSpringRepository extends CrudRepository<GameDTO, UUID>, GameSpringRepositoryCustom {
+
+    /**
+     * <p>
+     * Retrieve the identifiers and creation times of the games of a given scenario.
+     * </p>
+     * <p>
+     * This can use the compound index on the scenario and creation time of games,
+     * so its cost is proportional to the number of games of the scenario,
+     * rather than to the total number of games.
+     * </p>
+     *
+     * @throws NullPointerException If {@code scenario} is null
+     */
+    @Nonnull
+    List<GameCreationTimeDTO> findByScenarioOrderByCreatedAsc(@Nonnull UUID scenario);
+
+    /**
+     * <p>
+     * Retrieve the identifiers and creation times of all the games.
+     * </p>
+     * <p>
+     * This reads only those fields, rather than the players of every game.
+     * </p>
+     */
+    @Nonnull
+    @Query(value = "{}", fields = "{'_id': 1, 'created': 1}")
+    List<GameCreationTimeDTO> findAllCreationTimes();
+
+    /**
+     * <p>
+     * Stream the identifiers and creation times of the first games of a given scenario,
+     * in order of creation time and then identifier.
+     * </p>
+     * <p>
+     * The returned stream is backed by a database cursor, so it must be closed.
+     * </p>
+     *
+     * @throws NullPointerException If {@code scenario} or {@code limit} is null
+     */
+    @Nonnull
+    Stream<GameCreationTimeDTO> findByScenarioOrderByCreatedAscIdentifierAsc(
+            @Nonnull UUID scenario, @Nonnull Limit limit);
+
+    /**
+     * <p>
+     * Stream the identifiers and creation times of the games of a given scenario
+     * that follow a given game,
+     * in order of creation time and then identifier.
+     * </p>
+     * <p>
+     * This is a keyset (seek) query, so the cost of retrieving a page does not depend on
+     * how many pages precede it.
+     * The returned stream is backed by a database cursor, so it must be closed.
+     * </p>
+     *
+     * @param afterCreated The creation time of the game that the games must follow.
+     * @param afterGame    The identifier of the game that the games must follow.
+     * @throws NullPointerException If any argument is null
+     */
+    @Nonnull
+    @Query(value = "{'scenario': ?0, '$or': [{'created': {'$gt': ?1}}, {'created': ?1, '_id': {'$gt': ?2}}]}",
+            fields = "{'_id': 1, 'created': 1}",
+            sort = "{'created': 1, '_id': 1}")
+    Stream<GameCreationTimeDTO> findByScenarioAfter(
+            @Nonnull UUID scenario, @Nonnull Instant afterCreated, @Nonnull UUID afterGame, @Nonnull Limit limit);
+
+    /**
+     * <p>
+     * Stream summaries, without the players, of the first games of a given scenario,
+     * in order of creation time and then identifier.
+     * </p>
+     * <p>
+     * The returned stream is backed by a database cursor, so it must be closed.
+     * </p>
+     *
+     * @throws NullPointerException If {@code scenario} or {@code limit} is null
+     */
+    @Nonnull
+    Stream<GameSummaryDTO> findSummariesByScenarioOrderByCreatedAscIdentifierAsc(
+            @Nonnull UUID scenario, @Nonnull Limit limit);
+
+    /**
+     * <p>
+     * Stream summaries, without the players, of the games of a given scenario
+     * that follow a given game,
+     * in order of creation time and then identifier.
+     * </p>
+     * <p>
+     * This is the same keyset query as {@link #findByScenarioAfter(UUID, Instant, UUID, Limit)}.
+     * The returned stream is backed by a database cursor, so it must be closed.
+     * </p>
+     *
+     * @param afterCreated The creation time of the game that the games must follow.
+     * @param afterGame    The identifier of the game that the games must follow.
+     * @throws NullPointerException If any argument is null
+     */
+    @Nonnull
+    @Query(value = "{'scenario': ?0, '$or': [{'created': {'$gt': ?1}}, {'created': ?1, '_id': {'$gt': ?2}}]}",
+            fields = "{'users': 0}",
+            sort = "{'created': 1, '_id': 1}")
+    Stream<GameSummaryDTO> findSummariesByScenarioAfter(
+            @Nonnull UUID scenario, @Nonnull Instant afterCreated, @Nonnull UUID afterGame, @Nonnull Limit limit);
+
+    /**
+     * <p>
+     * Retrieve summaries, without the players, of the games that have given identifiers.
+     * </p>
+     *
+     * @throws NullPointerException If {@code ids} is null
+     */
+    @Nonnull
+    List<GameSummaryDTO> findSummariesByIdentifierIn(@Nonnull Collection<UUID> ids);
 
 }
@@ -0,0 +1,80 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Operations on the repository of {@linkplain GameDTO games} that are each a single atomic database update
+ * of only some fields of a game, rather than a save of the whole game.
+ * </p>
+ */
+public interface GameSpringRepositoryCustom {
+
+    /**
+     * <p>
+     * Add some users to a game, provided that the game is still in a given state
+     * and that neither the characters nor the users are already in the game.
+     * </p>
+     * <p>
+     * The addition is a single atomic update, which also increments the {@linkplain GameDTO#version() version}
+     * of the game, so concurrent joins of different characters of a game can all succeed,
+     * without retries.
+     * </p>
+     *
+     * @param game       The identifier of the game.
+     * @param runState   The run state the game must have.
+     * @param recruiting Whether the game must be recruiting.
+     * @param users      The users to add.
+     * @return whether the game was updated;
+     * false if there is no such game, or it does not satisfy the conditions.
+     * @throws NullPointerException If any argument is null
+     */
+    boolean addUsers(
+            @Nonnull UUID game,
+            @Nonnull GameDTO.RunStateDTO runState,
+            boolean recruiting,
+            @Nonnull Collection<GameDTO.PlayedCharacterDTO> users);
+
+    /**
+     * <p>
+     * Change the fields of a stored game that differ between two states of the game,
+     * provided that the stored game still has the {@linkplain GameDTO#version() version} of the first state.
+     * </p>
+     * <p>
+     * This is a single atomic update that sets only the changed fields,
+     * so changing the run state or recruiting flag of a game does not rewrite its list of users,
+     * and an addition of users appends to the list.
+     * It also increments the version of the game.
+     * A game that has no version, because it was saved before games were versioned,
+     * is updated only if the stored game still has no version.
+     * </p>
+     *
+     * @param before The state of the game that was read.
+     * @param after  The new state of the game.
+     * @return whether the game was updated;
+     * false if there is no such game, or it has been changed concurrently.
+     * @throws NullPointerException     If any argument is null
+     * @throws IllegalArgumentException If the identifiers of the games differ.
+     */
+    boolean updateChangedFields(@Nonnull GameDTO before, @Nonnull GameDTO after);
+}
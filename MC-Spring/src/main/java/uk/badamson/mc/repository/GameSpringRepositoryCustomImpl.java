@@ -0,0 +1,110 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * <p>
+ * The implementation of the {@link GameSpringRepositoryCustom} fragment of the {@link GameSpringRepository},
+ * which Spring Data finds by its name.
+ * </p>
+ */
+final class GameSpringRepositoryCustomImpl implements GameSpringRepositoryCustom {
+
+    private final MongoOperations mongoOperations;
+
+    @Autowired
+    GameSpringRepositoryCustomImpl(@Nonnull MongoOperations mongoOperations) {
+        this.mongoOperations = Objects.requireNonNull(mongoOperations);
+    }
+
+    @Override
+    public boolean addUsers(
+            @Nonnull UUID game,
+            @Nonnull GameDTO.RunStateDTO runState,
+            boolean recruiting,
+            @Nonnull Collection<GameDTO.PlayedCharacterDTO> users) {
+        Objects.requireNonNull(game, "game");
+        Objects.requireNonNull(runState, "runState");
+        final var characterIds = users.stream().map(GameDTO.PlayedCharacterDTO::characterId).toList();
+        final var userIds = users.stream().map(GameDTO.PlayedCharacterDTO::userId).toList();
+        final var criteria = Criteria.where("_id").is(game).and("runState").is(runState);
+        if (recruiting) {
+            criteria.and("recruiting").is(true);
+        } else {
+            // Games saved with no recruiting flag are not recruiting
+            criteria.and("recruiting").ne(true);
+        }
+        criteria.and("users.characterId").nin(characterIds)
+                .and("users.userId").nin(userIds);
+        final var query = Query.query(criteria);
+        final var update = new Update()
+                .push("users").each(users.toArray())
+                .inc("version", 1);
+        return mongoOperations.updateFirst(query, update, GameDTO.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public boolean updateChangedFields(@Nonnull GameDTO before, @Nonnull GameDTO after) {
+        if (!before.identifier().equals(after.identifier())) {
+            throw new IllegalArgumentException("different games");
+        }
+        final var criteria = Criteria.where("_id").is(before.identifier());
+        if (before.version() == null) {
+            criteria.and("version").exists(false);
+        } else {
+            criteria.and("version").is(before.version());
+        }
+        final var update = new Update().inc("version", 1);
+        if (!Objects.equals(before.scenario(), after.scenario())) {
+            update.set("scenario", after.scenario());
+        }
+        if (!Objects.equals(before.created(), after.created())) {
+            update.set("created", after.created());
+        }
+        if (before.runState() != after.runState()) {
+            update.set("runState", after.runState());
+        }
+        if (!Objects.equals(before.recruiting(), after.recruiting())) {
+            update.set("recruiting", after.recruiting());
+        }
+        final var usersBefore = GameDTO.getUserSet(before);
+        final var usersAfter = GameDTO.getUserSet(after);
+        if (!usersBefore.equals(usersAfter)) {
+            if (usersAfter.containsAll(usersBefore)) {
+                update.push("users").each(after.users().stream()
+                        .filter(u -> !usersBefore.contains(u))
+                        .toArray());
+            } else {
+                update.set("users", after.users());
+            }
+        }
+        return mongoOperations.updateFirst(Query.query(criteria), update, GameDTO.class).getModifiedCount() == 1;
+    }
+}
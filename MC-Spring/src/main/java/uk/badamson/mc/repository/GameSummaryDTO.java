@@ -0,0 +1,64 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.springframework.data.annotation.Id;
+import uk.badamson.mc.FindGameResult;
+import uk.badamson.mc.Game;
+
+import javax.annotation.Nonnull;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * <p>
+ * A projection of a {@link GameDTO} that has all its fields except its list of players.
+ * </p>
+ * <p>
+ * Reading only these fields avoids transferring and converting the list of players of each game,
+ * which can be large.
+ * </p>
+ */
+public record GameSummaryDTO(
+        @Id
+        UUID identifier,
+        UUID scenario,
+        Instant created,
+        GameDTO.RunStateDTO runState,
+        Boolean recruiting
+) {
+
+    /**
+     * <p>
+     * Convert to a game that has no players.
+     * </p>
+     */
+    @Nonnull
+    static Map.Entry<UUID, FindGameResult> convertFromDTO(@Nonnull GameSummaryDTO dto) {
+        final var game = new Game(
+                dto.created(),
+                GameDTO.RunStateDTO.convertFromDTO(dto.runState()),
+                dto.recruiting() != null && dto.recruiting(),
+                Map.of()
+        );
+        return new AbstractMap.SimpleImmutableEntry<>(dto.identifier(), new FindGameResult(game, dto.scenario()));
+    }
+}
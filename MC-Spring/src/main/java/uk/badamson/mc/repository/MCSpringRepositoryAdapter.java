@@ -20,23 +20,47 @@ package uk.badamson.mc.repository;
 
 import uk.badamson.mc.*;
 import uk.badamson.mc.spring.SpringUser;
+import uk.badamson.mc.spring.SpringUserCache;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Instant;
 import java.util.*;
+import java.util.stream.Stream;
 
 public class MCSpringRepositoryAdapter extends MCRepository {
 
     private final CurrentUserGameSpringRepository currentUserGameRepository;
     private final GameSpringRepository gameRepository;
     private final UserSpringRepository userRepository;
+    private final GameDTOCache gameCache;
+    private final SpringUserCache userCache;
+    private final UserGameAssociationCache currentUserGameCache;
 
     public MCSpringRepositoryAdapter(
             @Nonnull CurrentUserGameSpringRepository currentUserGameRepository,
             @Nonnull GameSpringRepository gameRepository,
-            @Nonnull UserSpringRepository userRepository) {
+            @Nonnull UserSpringRepository userRepository,
+            @Nonnull GameDTOCache gameCache,
+            @Nonnull SpringUserCache userCache,
+            @Nonnull UserGameAssociationCache currentUserGameCache) {
         this.currentUserGameRepository = Objects.requireNonNull(currentUserGameRepository);
         this.gameRepository = Objects.requireNonNull(gameRepository);
         this.userRepository = Objects.requireNonNull(userRepository);
+        this.gameCache = Objects.requireNonNull(gameCache);
+        this.userCache = Objects.requireNonNull(userCache);
+        this.currentUserGameCache = Objects.requireNonNull(currentUserGameCache);
+    }
+
+    public MCSpringRepositoryAdapter(
+            @Nonnull CurrentUserGameSpringRepository currentUserGameRepository,
+            @Nonnull GameSpringRepository gameRepository,
+            @Nonnull UserSpringRepository userRepository) {
+        this(currentUserGameRepository, gameRepository, userRepository,
+                new GameDTOCache(), new SpringUserCache(), new UserGameAssociationCache());
     }
 
     @Nonnull
@@ -45,35 +69,277 @@ public class MCSpringRepositoryAdapter extends MCRepository {
         return new AdapterContext();
     }
 
+    /**
+     * <p>
+     * Retrieve the identifiers and creation times of the games of a given scenario,
+     * in order of creation.
+     * </p>
+     * <p>
+     * Unlike retrieving all the games through a {@link Context}, this reads only the games of the scenario,
+     * and only their identifiers and creation times.
+     * </p>
+     */
+    @Nonnull
+    public List<Map.Entry<UUID, Instant>> findGameCreationTimesOfScenario(@Nonnull UUID scenario) {
+        Objects.requireNonNull(scenario, "scenario");
+        RepositoryCallStatistics.recordRepositoryCall();
+        return gameRepository.findByScenarioOrderByCreatedAsc(scenario).stream()
+                .map(GameCreationTimeDTO::convertFromDTO)
+                .toList();
+    }
+
+    /**
+     * <p>
+     * Retrieve the identifiers of all the games.
+     * </p>
+     * <p>
+     * Unlike retrieving all the games through a {@link Context}, this reads only the identifiers.
+     * </p>
+     */
+    @Nonnull
+    public List<UUID> findAllGameIdentifiers() {
+        RepositoryCallStatistics.recordRepositoryCall();
+        return gameRepository.findAllCreationTimes().stream()
+                .map(GameCreationTimeDTO::identifier)
+                .toList();
+    }
+
+    /**
+     * <p>
+     * Stream one page of the identifiers and creation times of the games of a given scenario,
+     * in order of creation time and then identifier.
+     * </p>
+     * <p>
+     * The returned stream reads lazily from a database cursor, so it must be closed.
+     * </p>
+     *
+     * @param afterCreated The creation time of the last game of the previous page,
+     *                     or null for the first page.
+     * @param afterGame    The identifier of the last game of the previous page,
+     *                     or null for the first page.
+     * @param limit        The maximum number of games to provide.
+     * @throws NullPointerException     If {@code scenario} is null
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If only one of {@code afterCreated} and {@code afterGame} is null</li>
+     *                                  <li>If {@code limit} is not positive</li>
+     *                                  </ul>
+     */
+    @Nonnull
+    public Stream<Map.Entry<UUID, Instant>> streamGameCreationTimesOfScenario(
+            @Nonnull UUID scenario,
+            @Nullable Instant afterCreated,
+            @Nullable UUID afterGame,
+            int limit) {
+        Objects.requireNonNull(scenario, "scenario");
+        if ((afterCreated == null) != (afterGame == null)) {
+            throw new IllegalArgumentException("incomplete cursor");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit");
+        }
+        RepositoryCallStatistics.recordRepositoryCall();
+        final Stream<GameCreationTimeDTO> dtos;
+        if (afterCreated == null) {
+            dtos = gameRepository.findByScenarioOrderByCreatedAscIdentifierAsc(scenario, Limit.of(limit));
+        } else {
+            dtos = gameRepository.findByScenarioAfter(scenario, afterCreated, afterGame, Limit.of(limit));
+        }
+        return dtos.map(GameCreationTimeDTO::convertFromDTO);
+    }
+
+    /**
+     * <p>
+     * Stream summaries of one page of the games of a given scenario,
+     * in order of creation time and then identifier.
+     * </p>
+     * <p>
+     * The summaries are games that have no players, because the players are not read.
+     * The returned stream reads lazily from a database cursor, so it must be closed.
+     * </p>
+     *
+     * @param afterCreated The creation time of the last game of the previous page,
+     *                     or null for the first page.
+     * @param afterGame    The identifier of the last game of the previous page,
+     *                     or null for the first page.
+     * @param limit        The maximum number of games to provide.
+     * @throws NullPointerException     If {@code scenario} is null
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If only one of {@code afterCreated} and {@code afterGame} is null</li>
+     *                                  <li>If {@code limit} is not positive</li>
+     *                                  </ul>
+     */
+    @Nonnull
+    public Stream<Map.Entry<UUID, FindGameResult>> streamGameSummariesOfScenario(
+            @Nonnull UUID scenario,
+            @Nullable Instant afterCreated,
+            @Nullable UUID afterGame,
+            int limit) {
+        Objects.requireNonNull(scenario, "scenario");
+        if ((afterCreated == null) != (afterGame == null)) {
+            throw new IllegalArgumentException("incomplete cursor");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit");
+        }
+        RepositoryCallStatistics.recordRepositoryCall();
+        final Stream<GameSummaryDTO> dtos;
+        if (afterCreated == null) {
+            dtos = gameRepository.findSummariesByScenarioOrderByCreatedAscIdentifierAsc(scenario, Limit.of(limit));
+        } else {
+            dtos = gameRepository.findSummariesByScenarioAfter(scenario, afterCreated, afterGame, Limit.of(limit));
+        }
+        return dtos.map(GameSummaryDTO::convertFromDTO);
+    }
+
+    /**
+     * <p>
+     * Retrieve summaries of several games, with one database query.
+     * </p>
+     * <p>
+     * The summaries are games that have no players, because the players are not read.
+     * </p>
+     *
+     * @return the games that exist, indexed by their IDs.
+     */
+    @Nonnull
+    public Map<UUID, FindGameResult> findGameSummaries(@Nonnull Collection<UUID> ids) {
+        final Map<UUID, FindGameResult> result = new HashMap<>();
+        RepositoryCallStatistics.recordRepositoryCall();
+        for (final var dto : gameRepository.findSummariesByIdentifierIn(ids)) {
+            final var entry = GameSummaryDTO.convertFromDTO(dto);
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * <p>
+     * Retrieve the {@linkplain GameDTO#version() version} of a game,
+     * through the cache of games shared by all contexts.
+     * </p>
+     * <p>
+     * The version changes whenever the game changes,
+     * so it can be used to check whether a game has changed without converting it.
+     * A game that has never been saved has version 0.
+     * </p>
+     *
+     * @return the version, or empty if there is no such game.
+     */
+    @Nonnull
+    public Optional<Long> findGameVersion(@Nonnull UUID id) {
+        Objects.requireNonNull(id, "id");
+        return gameCache.find(id, gameRepository::findById)
+                .map(dto -> dto.version() == null ? 0L : dto.version());
+    }
+
+    /**
+     * <p>
+     * Retrieve several games, through the cache of games shared by all contexts,
+     * with at most one database query for those games that are not cached.
+     * </p>
+     * <p>
+     * The retrieved games remain in the cache, so subsequently retrieving them one at a time,
+     * through a {@link Context}, is cheap.
+     * </p>
+     *
+     * @return the games that exist, indexed by their IDs.
+     */
+    @Nonnull
+    public Map<UUID, FindGameResult> findGames(@Nonnull Collection<UUID> ids) {
+        final Map<UUID, FindGameResult> result = new HashMap<>();
+        gameCache.findAll(ids, gameRepository::findAllById).forEach((id, dto) ->
+                result.put(id, new FindGameResult(GameDTO.convertFromDTO(dto), dto.scenario())));
+        return result;
+    }
+
+    /**
+     * <p>
+     * A unit of work with the repository.
+     * </p>
+     * <p>
+     * Updates of games are optimistic:
+     * a context remembers the {@linkplain GameDTO#version() version} of each game it reads,
+     * and an update of a game fails with an {@link OptimisticLockingFailureException}
+     * if the game has been changed since this context read it.
+     * The exception is an update that only adds users to a game,
+     * which succeeds if the game is still in the same state and the characters and users are still free.
+     * </p>
+     * <p>
+     * An update of a game writes only the fields that have changed,
+     * rather than the whole game, so ending recruitment of a game with many players does not rewrite its players.
+     * An update of the current game of a user sets only its game.
+     * </p>
+     */
     public final class AdapterContext extends Context {
 
+        private final Map<UUID, GameDTO> gamesRead = new HashMap<>();
+
         @Override
         protected void addGameUncached(@Nonnull UUID gameId, @Nonnull UUID scenarioId, @Nonnull Game game) {
-            gameRepository.save(GameDTO.convertToDTO(gameId, scenarioId, game));
+            try {
+                RepositoryCallStatistics.recordRepositoryCall();
+                gamesRead.put(gameId, gameRepository.save(GameDTO.convertToDTO(gameId, scenarioId, game)));
+            } finally {
+                gameCache.invalidate(gameId);
+            }
         }
 
         @Override
         protected void updateGameUncached(@Nonnull UUID gameId, @Nonnull UUID scenarioId, @Nonnull Game game) {
-            gameRepository.save(GameDTO.convertToDTO(gameId, scenarioId, game));
+            try {
+                gamesRead.put(gameId, updateGame(gameId, scenarioId, game));
+            } finally {
+                gameCache.invalidate(gameId);
+            }
+        }
+
+        @Nonnull
+        private GameDTO updateGame(@Nonnull UUID gameId, @Nonnull UUID scenarioId, @Nonnull Game game)
+                throws OptimisticLockingFailureException {
+            final GameDTO before;
+            if (gamesRead.containsKey(gameId)) {
+                before = gamesRead.get(gameId);
+            } else {
+                RepositoryCallStatistics.recordRepositoryCall();
+                before = gameRepository.findById(gameId).orElse(null);
+            }
+            if (before == null) {
+                RepositoryCallStatistics.recordRepositoryCall();
+                return gameRepository.save(GameDTO.convertToDTO(gameId, scenarioId, game));
+            }
+            final var after = GameDTO.convertToDTO(gameId, scenarioId, game, before.version());
+            if (GameDTO.isSameState(before, after)) {
+                return before;
+            }
+            RepositoryCallStatistics.recordRepositoryCall();
+            final var addedUsers = GameDTO.findAddedUsers(before, after);
+            final boolean updated;
+            if (addedUsers != null) {
+                updated = gameRepository.addUsers(gameId, before.runState(), GameDTO.isRecruiting(before), addedUsers);
+            } else {
+                updated = gameRepository.updateChangedFields(before, after);
+            }
+            if (!updated) {
+                throw new OptimisticLockingFailureException("Game changed concurrently " + gameId);
+            }
+            return after.withVersion(before.version() == null ? 1L : before.version() + 1L);
         }
 
         @Nonnull
         @Override
         protected Optional<FindGameResult> findGameUncached(@Nonnull UUID id) {
-            final var gameDtoOptional = gameRepository.findById(id);
-            if (gameDtoOptional.isEmpty()) {
-                return Optional.empty();
-            }
-            final var gameDto = gameDtoOptional.get();
-            final var scenarioId = gameDto.scenario();
-            return gameDtoOptional.map(dto -> new FindGameResult(GameDTO.convertFromDTO(dto), scenarioId));
+            final var dto = gameCache.find(id, gameRepository::findById);
+            dto.ifPresent(d -> gamesRead.put(id, d));
+            return dto.map(d -> new FindGameResult(GameDTO.convertFromDTO(d), d.scenario()));
         }
 
         @Nonnull
         @Override
         protected Iterable<Map.Entry<UUID, FindGameResult>> findAllGamesUncached() {
             List<Map.Entry<UUID, FindGameResult>> result = new ArrayList<>();
+            RepositoryCallStatistics.recordRepositoryCall();
             for (var gameDTO: gameRepository.findAll()) {
+                gamesRead.put(gameDTO.identifier(), gameDTO);
                 result.add(new AbstractMap.SimpleImmutableEntry<>(
                         gameDTO.identifier(),
                         new FindGameResult(GameDTO.convertFromDTO(gameDTO), gameDTO.scenario())
@@ -85,34 +351,53 @@ public class MCSpringRepositoryAdapter extends MCRepository {
         @Nonnull
         @Override
         protected Optional<UserGameAssociation> findCurrentUserGameUncached(@Nonnull UUID userId) {
-            return currentUserGameRepository.findById(userId).map(UserGameAssociationDTO::convertFromDTO);
+            return currentUserGameCache.find(userId, currentUserGameRepository::findById)
+                    .map(UserGameAssociationDTO::convertFromDTO);
         }
 
         @Override
         protected void addCurrentUserGameUncached(@Nonnull UUID userId, @Nonnull UserGameAssociation association) {
-            currentUserGameRepository.save(UserGameAssociationDTO.convertToDTO(userId, association));
+            final var dto = UserGameAssociationDTO.convertToDTO(userId, association);
+            try {
+                RepositoryCallStatistics.recordRepositoryCall();
+                currentUserGameRepository.save(dto);
+            } catch (RuntimeException e) {
+                currentUserGameCache.invalidate(userId);
+                throw e;
+            }
+            currentUserGameCache.put(dto);
         }
 
         @Override
         protected void updateCurrentUserGameUncached(@Nonnull UUID userId, @Nonnull UserGameAssociation association) {
-            currentUserGameRepository.save(UserGameAssociationDTO.convertToDTO(userId, association));
+            try {
+                RepositoryCallStatistics.recordRepositoryCall();
+                currentUserGameRepository.setGame(userId, association.getGame());
+            } catch (RuntimeException e) {
+                currentUserGameCache.invalidate(userId);
+                throw e;
+            }
+            currentUserGameCache.put(UserGameAssociationDTO.convertToDTO(userId, association));
         }
 
         @Nonnull
         @Override
         protected Optional<UUID> findUserIdForUsernameUncached(@Nonnull String username) {
+            RepositoryCallStatistics.recordRepositoryCall();
             return userRepository.findByUsername(username).map(SpringUser::getId);
         }
 
         @Nonnull
         @Override
         protected Optional<User> findUserUncached(@Nonnull UUID id) {
+            RepositoryCallStatistics.recordRepositoryCall();
             return userRepository.findById(id).map(SpringUser::convertFromSpring);
         }
 
         @Nonnull
         @Override
         protected Iterable<Map.Entry<UUID,User>> findAllUsersUncached() {
+            RepositoryCallStatistics.recordRepositoryCall();
             final List<Map.Entry<UUID,User>> result = new ArrayList<>();
             for (var u: userRepository.findAll()) {
                 result.add(new AbstractMap.SimpleImmutableEntry<>(u.getId(), SpringUser.convertFromSpring(u)));
@@ -122,12 +407,19 @@ public class MCSpringRepositoryAdapter extends MCRepository {
 
         @Override
         protected void addUserUncached(@Nonnull UUID id, @Nonnull User user) {
+            RepositoryCallStatistics.recordRepositoryCall();
             userRepository.save(SpringUser.convertToSpring(user));
+            userCache.removeUserFromCache(user.getUsername());
+            userCache.removeUserFromCacheById(id);
         }
 
         @Override
         protected void updateUserUncached(@Nonnull UUID id, @Nonnull User user) {
+            RepositoryCallStatistics.recordRepositoryCall();
             userRepository.save(SpringUser.convertToSpring(user));
+            // The update might have renamed the user, so also evict any entry for the previous username.
+            userCache.removeUserFromCache(user.getUsername());
+            userCache.removeUserFromCacheById(id);
         }
     }
 }
@@ -0,0 +1,121 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * <p>
+ * Counts of the calls of the database repositories, and of the hits of the game cache,
+ * made by the current thread while recording.
+ * </p>
+ * <p>
+ * Recording is off unless a caller has {@linkplain #start() started} it,
+ * in which case counting costs a thread-local look-up.
+ * Recordings may be nested: the counts of a nested recording are also added to the enclosing recording.
+ * </p>
+ */
+public final class RepositoryCallStatistics implements AutoCloseable {
+
+    private static final ThreadLocal<RepositoryCallStatistics> CURRENT = new ThreadLocal<>();
+
+    @Nullable
+    private final RepositoryCallStatistics enclosing;
+    private int repositoryCalls;
+    private int cacheHits;
+    private boolean closed;
+
+    private RepositoryCallStatistics(@Nullable final RepositoryCallStatistics enclosing) {
+        this.enclosing = enclosing;
+    }
+
+    /**
+     * <p>
+     * Start recording the calls made by the current thread.
+     * </p>
+     * <p>
+     * The returned recording must be {@linkplain #close() closed} by the same thread.
+     * </p>
+     */
+    @Nonnull
+    public static RepositoryCallStatistics start() {
+        final var statistics = new RepositoryCallStatistics(CURRENT.get());
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void recordRepositoryCall() {
+        final var statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.repositoryCalls++;
+        }
+    }
+
+    static void recordCacheHits(final int hits) {
+        final var statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.cacheHits += hits;
+        }
+    }
+
+    /**
+     * <p>
+     * The number of calls of the database repositories recorded.
+     * </p>
+     * <p>
+     * Reading games that are not in the game cache counts as one call.
+     * </p>
+     */
+    public int getRepositoryCalls() {
+        return repositoryCalls;
+    }
+
+    /**
+     * <p>
+     * The number of games found in the game cache, rather than read from the database, recorded.
+     * </p>
+     */
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * <p>
+     * Stop recording, resuming any enclosing recording.
+     * </p>
+     * <p>
+     * Closing a recording again has no effect.
+     * </p>
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (enclosing == null) {
+            CURRENT.remove();
+        } else {
+            enclosing.repositoryCalls += repositoryCalls;
+            enclosing.cacheHits += cacheHits;
+            CURRENT.set(enclosing);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * <p>
+ * An event indicating that a record in the database has changed,
+ * possibly through a different server.
+ * </p>
+ * <p>
+ * The {@link ChangeStreamCoherence} publishes these events
+ * after it has discarded any cached values that the change made stale.
+ * Like other events, the event does not carry the new state.
+ * </p>
+ *
+ * @param kind The kind of record that changed.
+ * @param id   The unique ID of the record that changed,
+ *             or null if any record of that kind might have changed.
+ */
+public record RepositoryChangeEvent(@Nonnull Kind kind, @Nullable UUID id) {
+
+    public RepositoryChangeEvent {
+        Objects.requireNonNull(kind, "kind");
+    }
+
+    public enum Kind {
+        GAME,
+        USER,
+        CURRENT_USER_GAME
+    }
+}
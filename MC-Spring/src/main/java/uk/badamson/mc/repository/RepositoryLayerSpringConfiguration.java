@@ -18,23 +18,85 @@ package uk.badamson.mc.repository;
  * along with MC.  If not, see <https://www.gnu.org/licenses/>.
  */
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import uk.badamson.mc.spring.SpringUserCache;
 
 import javax.annotation.Nonnull;
+import java.time.Duration;
 
 @ComponentScan("uk.badamson.mc.repository")
 public class RepositoryLayerSpringConfiguration {
 
     @Bean
+    public GameDTOCache provideGameDTOCache(
+            @Value("${mc.cache.game.maximum-size:10000}") long maximumSize,
+            @Value("${mc.cache.game.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        return new GameDTOCache(maximumSize, expireAfterWrite);
+    }
+
+    @Bean
+    public SpringUserCache provideSpringUserCache(
+            @Value("${mc.cache.user.maximum-size:1000}") long maximumSize,
+            @Value("${mc.cache.user.expire-after-write:PT5M}") Duration expireAfterWrite) {
+        return new SpringUserCache(maximumSize, expireAfterWrite);
+    }
+
+    @Bean
+    public UserGameAssociationCache provideUserGameAssociationCache(
+            @Value("${mc.cache.current-user-game.maximum-size:10000}") long maximumSize,
+            @Value("${mc.cache.current-user-game.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        return new UserGameAssociationCache(maximumSize, expireAfterWrite);
+    }
+
+    /**
+     * <p>
+     * Listen to MongoDB change streams, to keep the caches coherent with changes made by other servers,
+     * unless the {@code mc.cache.change-streams.enabled} property is {@code false}.
+     * </p>
+     */
+    @Bean
+    public ChangeStreamCoherence provideChangeStreamCoherence(
+            @Nonnull MongoTemplate mongoTemplate,
+            @Nonnull ApplicationEventPublisher eventPublisher,
+            @Nonnull GameDTOCache gameCache,
+            @Nonnull SpringUserCache userCache,
+            @Nonnull UserGameAssociationCache currentUserGameCache,
+            @Value("${mc.cache.change-streams.enabled:true}") boolean enabled) {
+        return new ChangeStreamCoherence(
+                mongoTemplate, eventPublisher,
+                gameCache, userCache, currentUserGameCache,
+                enabled);
+    }
+
+    @Bean
+    public UuidRepresentationMigration provideUuidRepresentationMigration(
+            @Nonnull MongoOperations mongoOperations,
+            @Value("${mc.migration.uuid-representation:false}") boolean enabled) {
+        return new UuidRepresentationMigration(mongoOperations, enabled);
+    }
+
+    @Bean
+    @DependsOn("provideUuidRepresentationMigration")
     public MCSpringRepositoryAdapter provideMCSpringRepositoryAdapter(
             @Nonnull CurrentUserGameSpringRepository currentUserGameRepository,
             @Nonnull GameSpringRepository gameRepository,
-            @Nonnull UserSpringRepository userRepository) {
+            @Nonnull UserSpringRepository userRepository,
+            @Nonnull GameDTOCache gameCache,
+            @Nonnull SpringUserCache userCache,
+            @Nonnull UserGameAssociationCache currentUserGameCache) {
         return new MCSpringRepositoryAdapter(
                 currentUserGameRepository,
                 gameRepository,
-                userRepository);
+                userRepository,
+                gameCache,
+                userCache,
+                currentUserGameCache);
     }
 
 }
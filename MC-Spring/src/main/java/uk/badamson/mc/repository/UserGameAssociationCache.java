@@ -0,0 +1,141 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A process-wide, bounded cache of the current games of users, indexed by user ID.
+ * </p>
+ * <p>
+ * The cache records users that have no current game, as well as those that do,
+ * because most users checked have not yet joined a game.
+ * Writes through this process {@linkplain #put(UserGameAssociationDTO) update} the cache.
+ * Changes made by other processes are {@linkplain #invalidate(UUID) invalidated}
+ * by the {@link ChangeStreamCoherence}.
+ * Entries are also evicted when the cache is full, and a fixed time after they were added,
+ * which limits how stale an entry can become if change notifications are not available.
+ * </p>
+ * <p>
+ * Like the {@link GameDTOCache}, values are loaded from the database outside any lock,
+ * and a loaded value is added to the cache only if the entry for that user
+ * was not changed or invalidated while it was being loaded.
+ * </p>
+ */
+public final class UserGameAssociationCache implements MeterBinder {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+
+    private final Cache<UUID, Optional<UserGameAssociationDTO>> associations;
+    private final ConcurrentMap<UUID, Object> loadMarkers = new ConcurrentHashMap<>();
+
+    /**
+     * @throws NullPointerException     If {@code expireAfterWrite} is null
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If {@code maximumSize} is negative</li>
+     *                                  <li>If {@code expireAfterWrite} is negative</li>
+     *                                  </ul>
+     */
+    public UserGameAssociationCache(final long maximumSize, @Nonnull final Duration expireAfterWrite) {
+        Objects.requireNonNull(expireAfterWrite, "expireAfterWrite");
+        associations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public UserGameAssociationCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_WRITE);
+    }
+
+    @Nonnull
+    Optional<UserGameAssociationDTO> find(
+            @Nonnull final UUID user,
+            @Nonnull final Function<UUID, Optional<UserGameAssociationDTO>> loader) {
+        final var cached = associations.getIfPresent(user);
+        if (cached != null) {
+            RepositoryCallStatistics.recordCacheHits(1);
+            return cached;
+        }
+        final var marker = new Object();
+        loadMarkers.put(user, marker);
+        try {
+            RepositoryCallStatistics.recordRepositoryCall();
+            final var loaded = loader.apply(user);
+            associations.asMap().compute(user, (k, old) -> loadMarkers.remove(k, marker) ? loaded : old);
+            return loaded;
+        } finally {
+            loadMarkers.remove(user, marker);
+        }
+    }
+
+    /**
+     * <p>
+     * Record the current game of a user.
+     * </p>
+     * <p>
+     * This must be called after the association has been written to the database.
+     * </p>
+     */
+    void put(@Nonnull final UserGameAssociationDTO association) {
+        loadMarkers.remove(association.user());
+        associations.put(association.user(), Optional.of(association));
+    }
+
+    /**
+     * <p>
+     * Discard any cached current game of a user.
+     * </p>
+     */
+    void invalidate(@Nonnull final UUID user) {
+        loadMarkers.remove(user);
+        associations.invalidate(user);
+    }
+
+    /**
+     * <p>
+     * Discard all cached values.
+     * </p>
+     */
+    public void invalidateAll() {
+        loadMarkers.clear();
+        associations.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(@Nonnull final MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, associations, "currentUserGames");
+    }
+}
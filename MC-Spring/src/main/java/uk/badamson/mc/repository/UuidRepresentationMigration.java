@@ -0,0 +1,215 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonValue;
+import org.bson.UuidRepresentation;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Converts the UUIDs stored in the database from the legacy Java binary representation
+ * (BSON binary subtype 3, with the byte order of the old Java driver)
+ * to the standard representation (BSON binary subtype 4).
+ * </p>
+ * <p>
+ * The server is configured to use the standard representation,
+ * so it can not find documents whose identifiers have the legacy representation.
+ * A database written by an earlier version of the server must therefore be migrated, once.
+ * While the server starts, before it handles any requests,
+ * it looks for a document with a legacy identifier in each collection,
+ * which is a single look-up of the index of identifiers,
+ * and migrates the database if it finds one.
+ * Setting the {@code mc.migration.uuid-representation} property to true
+ * forces a migration even if no legacy identifiers are found,
+ * at the cost of reading every document at start-up.
+ * Migrating an already migrated database changes nothing.
+ * </p>
+ * <p>
+ * A document with a legacy identifier is migrated by writing the converted document
+ * and then deleting the original.
+ * If the server stops between those steps, migrating again completes the migration.
+ * </p>
+ */
+public final class UuidRepresentationMigration implements InitializingBean {
+
+    /**
+     * <p>
+     * The names of the collections that have UUIDs.
+     * </p>
+     */
+    public static final List<String> COLLECTIONS = List.of("game", "user", "user_game_association");
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UuidRepresentationMigration.class);
+
+    /*
+     * BSON orders binary values by length, then subtype, then content,
+     * so the legacy UUIDs are the 16 byte values from subtype 3 up to (but excluding) subtype 4.
+     */
+    private static final Bson LEGACY_ID = Filters.and(
+            Filters.gte("_id", new BsonBinary(BsonBinarySubType.UUID_LEGACY, new byte[16])),
+            Filters.lt("_id", new BsonBinary(BsonBinarySubType.UUID_STANDARD, new byte[16])));
+
+    private final MongoOperations mongoOperations;
+    private final boolean enabled;
+
+    public UuidRepresentationMigration(@Nonnull MongoOperations mongoOperations, boolean enabled) {
+        this.mongoOperations = Objects.requireNonNull(mongoOperations);
+        this.enabled = enabled;
+    }
+
+    /**
+     * <p>
+     * Convert any legacy UUIDs in a BSON value, recursively.
+     * </p>
+     *
+     * @return The converted value, or the given value if it has no legacy UUIDs.
+     */
+    @Nonnull
+    static BsonValue convert(@Nonnull BsonValue value) {
+        if (value.isBinary()) {
+            final BsonBinary binary = value.asBinary();
+            if (binary.getType() == BsonBinarySubType.UUID_LEGACY.getValue()) {
+                return new BsonBinary(binary.asUuid(UuidRepresentation.JAVA_LEGACY), UuidRepresentation.STANDARD);
+            }
+        } else if (value.isDocument()) {
+            BsonDocument converted = null;
+            for (final var entry : value.asDocument().entrySet()) {
+                final var convertedValue = convert(entry.getValue());
+                if (convertedValue != entry.getValue()) {
+                    if (converted == null) {
+                        converted = value.asDocument().clone();
+                    }
+                    converted.put(entry.getKey(), convertedValue);
+                }
+            }
+            if (converted != null) {
+                return converted;
+            }
+        } else if (value.isArray()) {
+            final var array = value.asArray();
+            BsonArray converted = null;
+            for (int i = 0, n = array.size(); i < n; ++i) {
+                final var convertedValue = convert(array.get(i));
+                if (convertedValue != array.get(i)) {
+                    if (converted == null) {
+                        converted = array.clone();
+                    }
+                    converted.set(i, convertedValue);
+                }
+            }
+            if (converted != null) {
+                return converted;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * <p>
+     * Migrate one collection.
+     * </p>
+     *
+     * @return the number of documents that were changed.
+     */
+    static long migrate(@Nonnull MongoCollection<BsonDocument> collection) {
+        long changed = 0;
+        for (final var document : collection.find(Filters.type("_id", "binData"))) {
+            final var converted = convert(document);
+            if (converted == document) {
+                continue;
+            }
+            final var originalId = document.get("_id");
+            final var convertedId = converted.asDocument().get("_id");
+            collection.replaceOne(
+                    Filters.eq("_id", convertedId), converted.asDocument(), new ReplaceOptions().upsert(true));
+            if (!convertedId.equals(originalId)) {
+                collection.deleteOne(Filters.eq("_id", originalId));
+            }
+            ++changed;
+        }
+        return changed;
+    }
+
+    /**
+     * <p>
+     * Whether a collection has any documents with a legacy UUID as their identifier.
+     * </p>
+     */
+    static boolean hasLegacyIds(@Nonnull MongoCollection<BsonDocument> collection) {
+        return collection.find(LEGACY_ID).projection(new BsonDocument("_id", new BsonInt32(1))).first() != null;
+    }
+
+    /**
+     * <p>
+     * Whether any of the {@linkplain #COLLECTIONS collections} that have UUIDs
+     * have documents with a legacy UUID as their identifier.
+     * </p>
+     */
+    public boolean hasLegacyIds() {
+        for (final var name : COLLECTIONS) {
+            if (mongoOperations.collectionExists(name)
+                    && hasLegacyIds(mongoOperations.getCollection(name).withDocumentClass(BsonDocument.class))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <p>
+     * Migrate all the {@linkplain #COLLECTIONS collections} that have UUIDs.
+     * </p>
+     */
+    public void migrate() {
+        for (final var name : COLLECTIONS) {
+            if (mongoOperations.collectionExists(name)) {
+                final var collection = mongoOperations.getCollection(name).withDocumentClass(BsonDocument.class);
+                final long changed = migrate(collection);
+                LOGGER.info("Migrated UUIDs of {} documents in collection {}", changed, name);
+            }
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            migrate();
+        } else if (hasLegacyIds()) {
+            LOGGER.warn("The database has legacy UUIDs, which the server can not read; migrating them");
+            migrate();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package uk.badamson.mc.service;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * <p>
+ * A {@link PasswordEncoder} that remembers which raw passwords were recently verified
+ * as matching which encoded passwords,
+ * so repeated authentication of a user need not repeat the (deliberately slow) verification.
+ * </p>
+ * <p>
+ * The cache does not hold raw passwords.
+ * Its keys are keyed hashes (HMAC-SHA-256, with a random key created for each instance)
+ * of the encoded password together with the raw password.
+ * Because the key includes the encoded password, changing the password of a user
+ * makes the cached verifications of the old password unreachable.
+ * Only successful verifications are cached, and only for a short time,
+ * so failed attempts always incur the full cost.
+ * </p>
+ */
+public final class CachingPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 1_000;
+    public static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofMinutes(5);
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_KEY_LENGTH = 32;
+
+    private final PasswordEncoder delegate;
+    private final SecretKeySpec macKey;
+    private final Cache<String, Boolean> verified;
+
+    /**
+     * @throws NullPointerException     <ul>
+     *                                  <li>If {@code delegate} is null</li>
+     *                                  <li>If {@code expireAfterWrite} is null</li>
+     *                                  </ul>
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If {@code maximumSize} is negative</li>
+     *                                  <li>If {@code expireAfterWrite} is negative</li>
+     *                                  </ul>
+     */
+    public CachingPasswordEncoder(
+            @Nonnull final PasswordEncoder delegate,
+            final long maximumSize,
+            @Nonnull final Duration expireAfterWrite) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        Objects.requireNonNull(expireAfterWrite, "expireAfterWrite");
+        final byte[] key = new byte[MAC_KEY_LENGTH];
+        new SecureRandom().nextBytes(key);
+        macKey = new SecretKeySpec(key, MAC_ALGORITHM);
+        verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public CachingPasswordEncoder(@Nonnull final PasswordEncoder delegate) {
+        this(delegate, DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_WRITE);
+    }
+
+    @Nonnull
+    private String createKey(@Nonnull final CharSequence rawPassword, @Nonnull final String encodedPassword) {
+        final Mac mac;
+        try {
+            mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(macKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(
+                mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public String encode(final CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(@Nullable final CharSequence rawPassword, @Nullable final String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        final var key = createKey(rawPassword, encodedPassword);
+        if (verified.getIfPresent(key) != null) {
+            return true;
+        }
+        final boolean matches = delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            verified.put(key, Boolean.TRUE);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(final String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void bindTo(@Nonnull final MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verified, "credentials");
+    }
+}
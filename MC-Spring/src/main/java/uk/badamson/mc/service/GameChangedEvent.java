@@ -0,0 +1,42 @@
+package uk.badamson.mc.service;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * <p>
+ * An event indicating that the state of a game has changed.
+ * </p>
+ * <p>
+ * The event does not carry the new state;
+ * listeners that need it should retrieve it,
+ * so they see the current state even if they handle events late.
+ * </p>
+ *
+ * @param game The unique ID of the game that changed.
+ */
+public record GameChangedEvent(@Nonnull UUID game) {
+
+    public GameChangedEvent {
+        Objects.requireNonNull(game, "game");
+    }
+}
@@ -0,0 +1,149 @@
+package uk.badamson.mc.service;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import uk.badamson.mc.repository.RepositoryCallStatistics;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * <p>
+ * A Java Flight Recorder event for an operation of the {@link GameSpringService}.
+ * </p>
+ * <p>
+ * The event records the duration of the operation, the number of attempts made by operations that retry,
+ * and the number of repository calls and game cache hits made by the operation.
+ * The repository calls and cache hits are counted only while the event is enabled,
+ * so the event costs little when no recording is running.
+ * </p>
+ */
+@Name("uk.badamson.mc.GameOperation")
+@Label("Game Operation")
+@Category({"Mission Command", "Game Service"})
+@Description("An operation of the game service")
+@StackTrace(false)
+final class GameOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Game")
+    String game;
+
+    @Label("Scenario")
+    String scenario;
+
+    @Label("User")
+    String user;
+
+    @Label("Attempts")
+    @Description("The number of attempts made, for operations that retry after concurrent changes")
+    int attempts;
+
+    @Label("Repository Calls")
+    int repositoryCalls;
+
+    @Label("Cache Hits")
+    @Description("The number of games found in the game cache rather than read from the database")
+    int cacheHits;
+
+    @Nullable
+    private transient RepositoryCallStatistics statistics;
+
+    private GameOperationEvent(@Nonnull final String operation) {
+        this.operation = operation;
+    }
+
+    @Nullable
+    private static String toString(@Nullable final UUID id) {
+        return id == null ? null : id.toString();
+    }
+
+    /**
+     * <p>
+     * Begin timing an operation.
+     * </p>
+     * <p>
+     * The operation must {@linkplain #finish() finish} the event, in the same thread.
+     * </p>
+     */
+    @Nonnull
+    static GameOperationEvent begin(
+            @Nonnull final String operation,
+            @Nullable final UUID game,
+            @Nullable final UUID scenario,
+            @Nullable final UUID user) {
+        Objects.requireNonNull(operation, "operation");
+        final var event = new GameOperationEvent(operation);
+        if (event.isEnabled()) {
+            event.game = toString(game);
+            event.scenario = toString(scenario);
+            event.user = toString(user);
+            event.statistics = RepositoryCallStatistics.start();
+            event.begin();
+        }
+        return event;
+    }
+
+    void setGame(@Nullable final UUID game) {
+        if (statistics != null) {
+            this.game = toString(game);
+        }
+    }
+
+    void setScenario(@Nullable final UUID scenario) {
+        if (statistics != null) {
+            this.scenario = toString(scenario);
+        }
+    }
+
+    void setAttempts(final int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * <p>
+     * End timing the operation, and commit the event if it is enabled and exceeds its threshold.
+     * </p>
+     * <p>
+     * Finishing the event again has no effect.
+     * </p>
+     */
+    void finish() {
+        if (statistics != null) {
+            end();
+            statistics.close();
+            repositoryCalls = statistics.getRepositoryCalls();
+            cacheHits = statistics.getCacheHits();
+            statistics = null;
+            if (shouldCommit()) {
+                commit();
+            }
+        }
+    }
+}
@@ -19,70 +19,314 @@ package uk.badamson.mc.service;
  */
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uk.badamson.mc.FindGameResult;
 import uk.badamson.mc.Game;
 import uk.badamson.mc.IdentifiedValue;
 import uk.badamson.mc.NamedUUID;
+import uk.badamson.mc.repository.ChangeStreamCoherence;
 import uk.badamson.mc.repository.MCSpringRepositoryAdapter;
+import uk.badamson.mc.repository.RepositoryChangeEvent;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * <p>
+ * The service layer for games.
+ * </p>
+ * <p>
+ * Changes to games are optimistic: a change of a game that was concurrently changed by another request
+ * fails with an {@link OptimisticLockingFailureException}, without changing the game.
+ * Operations that change games therefore retry the whole operation,
+ * which re-reads the game, up to {@value #MAXIMUM_ATTEMPTS} times,
+ * before propagating the exception.
+ * </p>
+ */
 @Service
 public class GameSpringService {
 
+    static final int MAXIMUM_ATTEMPTS = 8;
+
     private final GameService delegate;
+    private final ScenarioSpringService scenarioService;
+    private final MCSpringRepositoryAdapter repository;
+    private final ApplicationEventPublisher eventPublisher;
+    @Nullable
+    private final ChangeStreamCoherence changeStreams;
 
+    /**
+     * @param changeStreams The change streams that report changes to the database,
+     *                      or null if changes are reported only by this service.
+     */
     @Autowired
     public GameSpringService(@Nonnull final Clock clock,
                              @Nonnull final ScenarioSpringService scenarioService,
                              @Nonnull final UserSpringService userService,
-                             @Nonnull MCSpringRepositoryAdapter repository) {
+                             @Nonnull MCSpringRepositoryAdapter repository,
+                             @Nonnull final ApplicationEventPublisher eventPublisher,
+                             @Nullable final ChangeStreamCoherence changeStreams) {
         this.delegate = new GameService(clock, scenarioService.getDelegate(), userService.getDelegate(), repository);
+        this.scenarioService = scenarioService;
+        this.repository = repository;
+        this.eventPublisher = Objects.requireNonNull(eventPublisher, "eventPublisher");
+        this.changeStreams = changeStreams;
+    }
+
+    public GameSpringService(@Nonnull final Clock clock,
+                             @Nonnull final ScenarioSpringService scenarioService,
+                             @Nonnull final UserSpringService userService,
+                             @Nonnull MCSpringRepositoryAdapter repository,
+                             @Nonnull final ApplicationEventPublisher eventPublisher) {
+        this(clock, scenarioService, userService, repository, eventPublisher, null);
+    }
+
+    /**
+     * <p>
+     * Publish a {@link GameChangedEvent} for a game changed through this service,
+     * unless the change stream of games will report the change.
+     * </p>
+     */
+    private void publishGameChanged(@Nonnull final UUID game) {
+        if (changeStreams == null || !changeStreams.isActive(RepositoryChangeEvent.Kind.GAME)) {
+            eventPublisher.publishEvent(new GameChangedEvent(game));
+        }
+    }
+
+    /**
+     * <p>
+     * Publish a {@link GameChangedEvent} for a game changed in the database,
+     * so listeners also learn of changes made through other servers.
+     * </p>
+     * <p>
+     * While the change stream of games is active, it reports the changes made through this server too,
+     * and this service does not publish its own, so each change is published once.
+     * </p>
+     * <p>
+     * An event without an ID indicates that changes to games could have been missed,
+     * and this service publishes an {@link AllGamesChangedEvent} instead.
+     * </p>
+     */
+    @EventListener
+    public void onRepositoryChanged(@Nonnull final RepositoryChangeEvent event) {
+        if (event.kind() == RepositoryChangeEvent.Kind.GAME) {
+            if (event.id() == null) {
+                eventPublisher.publishEvent(new AllGamesChangedEvent());
+            } else {
+                eventPublisher.publishEvent(new GameChangedEvent(event.id()));
+            }
+        }
+    }
+
+    private static void requireAttemptsRemain(
+            final int attempt, @Nonnull final OptimisticLockingFailureException e)
+            throws OptimisticLockingFailureException {
+        if (MAXIMUM_ATTEMPTS <= attempt) {
+            throw e;
+        }
+    }
+
+    private void requireKnownScenario(@Nonnull final UUID scenario) throws NoSuchElementException {
+        if (scenarioService.getScenario(scenario).isEmpty()) {
+            throw new NoSuchElementException("scenario");
+        }
     }
 
     @Nonnull
     @Transactional
     public IdentifiedValue<UUID, Game> create(@Nonnull final UUID scenario) throws NoSuchElementException {
-        return delegate.create(scenario);
+        final var event = GameOperationEvent.begin("create", null, scenario, null);
+        try {
+            final var result = delegate.create(scenario);
+            event.setGame(result.getIdentifier());
+            return result;
+        } finally {
+            event.finish();
+        }
     }
 
     @Nonnull
     @Transactional
     public Set<NamedUUID> getGameIdentifiersOfScenario(@Nonnull final UUID scenario)
             throws NoSuchElementException {
-        return delegate.getGameIdentifiersOfScenario(scenario);
+        requireKnownScenario(scenario);
+        return repository.findGameCreationTimesOfScenario(scenario).stream()
+                .map(e -> new NamedUUID(e.getKey(), e.getValue().toString()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * <p>
+     * Provide one page of the identifiers of the games of a scenario,
+     * in order of creation time and then identifier.
+     * </p>
+     * <p>
+     * The title of each identifier is the creation time of the game.
+     * The returned stream reads lazily from the repository, so it must be closed.
+     * </p>
+     *
+     * @param afterCreated The creation time of the last game of the previous page,
+     *                     or null for the first page.
+     * @param afterGame    The identifier of the last game of the previous page,
+     *                     or null for the first page.
+     * @param limit        The maximum number of games to provide.
+     * @throws NoSuchElementException   If {@code scenario} is not the identifier of a scenario.
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If only one of {@code afterCreated} and {@code afterGame} is null</li>
+     *                                  <li>If {@code limit} is not positive</li>
+     *                                  </ul>
+     */
+    @Nonnull
+    public Stream<NamedUUID> getGameIdentifiersOfScenario(
+            @Nonnull final UUID scenario,
+            @Nullable final Instant afterCreated,
+            @Nullable final UUID afterGame,
+            final int limit)
+            throws NoSuchElementException {
+        requireKnownScenario(scenario);
+        return repository.streamGameCreationTimesOfScenario(scenario, afterCreated, afterGame, limit)
+                .map(e -> new NamedUUID(e.getKey(), e.getValue().toString()));
+    }
+
+    /**
+     * <p>
+     * Provide summaries of one page of the games of a scenario,
+     * in order of creation time and then identifier.
+     * </p>
+     * <p>
+     * The summaries are games without their players, which are not read from the repository.
+     * So the summaries are the same for game managers and other users.
+     * The returned stream reads lazily from the repository, so it must be closed.
+     * </p>
+     *
+     * @param afterCreated The creation time of the last game of the previous page,
+     *                     or null for the first page.
+     * @param afterGame    The identifier of the last game of the previous page,
+     *                     or null for the first page.
+     * @param limit        The maximum number of games to provide.
+     * @throws NoSuchElementException   If {@code scenario} is not the identifier of a scenario.
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If only one of {@code afterCreated} and {@code afterGame} is null</li>
+     *                                  <li>If {@code limit} is not positive</li>
+     *                                  </ul>
+     */
+    @Nonnull
+    public Stream<Map.Entry<UUID, FindGameResult>> getGameSummariesOfScenario(
+            @Nonnull final UUID scenario,
+            @Nullable final Instant afterCreated,
+            @Nullable final UUID afterGame,
+            final int limit)
+            throws NoSuchElementException {
+        requireKnownScenario(scenario);
+        return repository.streamGameSummariesOfScenario(scenario, afterCreated, afterGame, limit);
+    }
+
+    /**
+     * <p>
+     * Retrieve summaries of several games.
+     * </p>
+     * <p>
+     * The summaries are games without their players, which are not read from the repository.
+     * So the summaries are the same for game managers and other users.
+     * </p>
+     *
+     * @return the games that exist, in the order of their first occurrence in {@code ids}.
+     */
+    @Nonnull
+    public Map<UUID, FindGameResult> getGameSummaries(@Nonnull final Collection<UUID> ids) {
+        final var found = repository.findGameSummaries(ids);
+        final Map<UUID, FindGameResult> result = new LinkedHashMap<>();
+        for (final var id : ids) {
+            final var game = found.get(id);
+            if (game != null) {
+                result.put(id, game);
+            }
+        }
+        return result;
     }
 
     @Transactional
     @Nonnull
     public Iterable<UUID> getGameIdentifiers() {
-        return delegate.getGameIdentifiers();
+        return repository.findAllGameIdentifiers();
     }
 
     @Transactional
     @Nonnull
     public Game startGame(@Nonnull final UUID id)
-            throws NoSuchElementException, IllegalGameStateException {
-        return delegate.startGame(id);
+            throws NoSuchElementException, IllegalGameStateException, OptimisticLockingFailureException {
+        final var event = GameOperationEvent.begin("startGame", id, null, null);
+        try {
+            for (int attempt = 1; ; ++attempt) {
+                event.setAttempts(attempt);
+                try {
+                    final var game = delegate.startGame(id);
+                    publishGameChanged(id);
+                    return game;
+                } catch (final OptimisticLockingFailureException e) {
+                    requireAttemptsRemain(attempt, e);
+                }
+            }
+        } finally {
+            event.finish();
+        }
     }
 
     @Transactional
     public void stopGame(@Nonnull final UUID id)
-            throws NoSuchElementException {
-        delegate.stopGame(id);
+            throws NoSuchElementException, OptimisticLockingFailureException {
+        final var event = GameOperationEvent.begin("stopGame", id, null, null);
+        try {
+            for (int attempt = 1; ; ++attempt) {
+                event.setAttempts(attempt);
+                try {
+                    delegate.stopGame(id);
+                    publishGameChanged(id);
+                    return;
+                } catch (final OptimisticLockingFailureException e) {
+                    requireAttemptsRemain(attempt, e);
+                }
+            }
+        } finally {
+            event.finish();
+        }
     }
 
     @Transactional
     public void endRecruitment(@Nonnull final UUID id)
-            throws NoSuchElementException {
-        delegate.endRecruitment(id);
+            throws NoSuchElementException, OptimisticLockingFailureException {
+        final var event = GameOperationEvent.begin("endRecruitment", id, null, null);
+        try {
+            for (int attempt = 1; ; ++attempt) {
+                event.setAttempts(attempt);
+                try {
+                    delegate.endRecruitment(id);
+                    publishGameChanged(id);
+                    return;
+                } catch (final OptimisticLockingFailureException e) {
+                    requireAttemptsRemain(attempt, e);
+                }
+            }
+        } finally {
+            event.finish();
+        }
     }
 
     @Transactional
@@ -92,18 +336,105 @@ public class GameSpringService {
         return delegate.getCurrentGameOfUser(userId);
     }
 
+    /**
+     * <p>
+     * Retrieve the version of a game, which changes whenever the game changes.
+     * </p>
+     * <p>
+     * This is cheaper than retrieving the game,
+     * so it can be used to check whether a previously retrieved game is still current.
+     * </p>
+     *
+     * @return the version, or empty if there is no such game.
+     */
+    @Nonnull
+    public Optional<Long> getGameVersion(@Nonnull final UUID id) {
+        return repository.findGameVersion(id);
+    }
+
     @Transactional
     @Nonnull
     public Optional<FindGameResult> getGameAsGameManager(
             @Nonnull final UUID id) {
-        return delegate.getGameAsGameManager(id);
+        final var event = GameOperationEvent.begin("getGameAsGameManager", id, null, null);
+        try {
+            final var result = delegate.getGameAsGameManager(id);
+            result.ifPresent(r -> event.setScenario(r.scenarioId()));
+            return result;
+        } finally {
+            event.finish();
+        }
     }
 
     @Transactional
     @Nonnull
     public Optional<FindGameResult> getGameAsNonGameManager(
             @Nonnull final UUID id, @Nonnull final UUID user) {
-        return delegate.getGameAsNonGameManager(id, user);
+        final var event = GameOperationEvent.begin("getGameAsNonGameManager", id, null, user);
+        try {
+            final var result = delegate.getGameAsNonGameManager(id, user);
+            result.ifPresent(r -> event.setScenario(r.scenarioId()));
+            return result;
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * <p>
+     * Retrieve several games, as they may be seen by a game manager.
+     * </p>
+     * <p>
+     * The games are read from the repository together, rather than one at a time.
+     * </p>
+     *
+     * @return the games that exist, in the order of their first occurrence in {@code ids}.
+     */
+    @Nonnull
+    public Map<UUID, FindGameResult> getGamesAsGameManager(@Nonnull final Collection<UUID> ids) {
+        final var event = GameOperationEvent.begin("getGamesAsGameManager", null, null, null);
+        try {
+            return getGames(ids, delegate::getGameAsGameManager);
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * <p>
+     * Retrieve several games, as they may be seen by a given user who is not a game manager.
+     * </p>
+     * <p>
+     * The games are read from the repository together, rather than one at a time.
+     * </p>
+     *
+     * @return the games that exist, in the order of their first occurrence in {@code ids}.
+     */
+    @Nonnull
+    public Map<UUID, FindGameResult> getGamesAsNonGameManager(
+            @Nonnull final Collection<UUID> ids, @Nonnull final UUID user) {
+        Objects.requireNonNull(user, "user");
+        final var event = GameOperationEvent.begin("getGamesAsNonGameManager", null, null, user);
+        try {
+            return getGames(ids, id -> delegate.getGameAsNonGameManager(id, user));
+        } finally {
+            event.finish();
+        }
+    }
+
+    @Nonnull
+    private Map<UUID, FindGameResult> getGames(
+            @Nonnull final Collection<UUID> ids,
+            @Nonnull final Function<UUID, Optional<FindGameResult>> getGame) {
+        // Reading the games together fills the game cache, so the subsequent individual reads are cache hits
+        final var present = repository.findGames(ids).keySet();
+        final Map<UUID, FindGameResult> result = new LinkedHashMap<>();
+        for (final var id : ids) {
+            if (present.contains(id) && !result.containsKey(id)) {
+                getGame.apply(id).ifPresent(game -> result.put(id, game));
+            }
+        }
+        return result;
     }
 
     @Transactional
@@ -111,12 +442,49 @@ public class GameSpringService {
         return delegate.mayUserJoinGame(user, game);
     }
 
+    /**
+     * <p>
+     * Whether a game exists and, if it does, whether a user may join it.
+     * </p>
+     * <p>
+     * The rule is that of {@link #mayUserJoinGame(UUID, UUID)}.
+     * The existence check reads the game through the cache of games shared by all units of work,
+     * without converting it, and the subsequent check of the rule reads the game from that cache,
+     * so the game is read from the database at most once.
+     * </p>
+     *
+     * @return whether the user may join the game, or empty if there is no such game.
+     */
+    @Transactional
+    @Nonnull
+    public Optional<Boolean> mayUserJoinGameIfPresent(@Nonnull final UUID user, @Nonnull final UUID game) {
+        Objects.requireNonNull(user, "user");
+        if (repository.findGameVersion(game).isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(delegate.mayUserJoinGame(user, game));
+    }
+
     @Transactional
     public void userJoinsGame(@Nonnull final UUID userId,
                               @Nonnull final UUID gameId)
             throws NoSuchElementException, UserAlreadyPlayingException,
-            IllegalGameStateException, SecurityException {
-        delegate.userJoinsGame(userId, gameId);
+            IllegalGameStateException, SecurityException, OptimisticLockingFailureException {
+        final var event = GameOperationEvent.begin("userJoinsGame", gameId, null, userId);
+        try {
+            for (int attempt = 1; ; ++attempt) {
+                event.setAttempts(attempt);
+                try {
+                    delegate.userJoinsGame(userId, gameId);
+                    publishGameChanged(gameId);
+                    return;
+                } catch (final OptimisticLockingFailureException e) {
+                    requireAttemptsRemain(attempt, e);
+                }
+            }
+        } finally {
+            event.finish();
+        }
     }
 
 }
@@ -18,13 +18,14 @@ package uk.badamson.mc.service;
  * along with MC.  If not, see <https://www.gnu.org/licenses/>.
  */
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.Clock;
+import java.time.Duration;
 
 /**
  * <p>
@@ -41,8 +42,12 @@ public class ServiceLayerSpringConfiguration {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    public CachingPasswordEncoder passwordEncoder(
+            @Value("${mc.cache.credentials.maximum-size:1000}") long maximumSize,
+            @Value("${mc.cache.credentials.expire-after-write:PT5M}") Duration expireAfterWrite) {
+        return new CachingPasswordEncoder(
+                PasswordEncoderFactories.createDelegatingPasswordEncoder(),
+                maximumSize, expireAfterWrite);
     }
 
 }
@@ -0,0 +1,174 @@
+package uk.badamson.mc.spring;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * <p>
+ * A bounded cache of the {@link SpringUser} records of recently authenticated users,
+ * so repeated authentication of a user need not look up the user in the database.
+ * </p>
+ * <p>
+ * Entries are evicted when the cache is full, and a fixed time after they were added.
+ * The cache holds copies of the users given to it, and provides copies,
+ * because {@link SpringUser} is not fully immutable.
+ * The repository layer must {@linkplain #removeUserFromCache(String) remove}
+ * a user after changing the record of that user.
+ * </p>
+ * <p>
+ * A user is loaded from the database between a {@linkplain #getUserFromCache(String) cache miss}
+ * and {@linkplain #putUserInCache(UserDetails) putting} the loaded user in the cache,
+ * by the same thread.
+ * The cache records a load marker for each miss, and removing the user discards the marker,
+ * so a user loaded before a change is not put in the cache after the change.
+ * </p>
+ */
+public final class SpringUserCache implements UserCache, MeterBinder {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 1_000;
+    public static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofMinutes(5);
+
+    private final Cache<String, SpringUser> users;
+    private final Cache<String, Object> loadMarkers;
+    private final ThreadLocal<Object> loadMarker = new ThreadLocal<>();
+
+    /**
+     * @throws NullPointerException     If {@code expireAfterWrite} is null
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If {@code maximumSize} is negative</li>
+     *                                  <li>If {@code expireAfterWrite} is negative</li>
+     *                                  </ul>
+     */
+    public SpringUserCache(final long maximumSize, @Nonnull final Duration expireAfterWrite) {
+        Objects.requireNonNull(expireAfterWrite, "expireAfterWrite");
+        users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        // A miss need not be followed by a put, so markers must also be evicted.
+        loadMarkers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public SpringUserCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_WRITE);
+    }
+
+    @Nonnull
+    private static SpringUser copy(@Nonnull final SpringUser user) {
+        return new SpringUser(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getAuthorities(),
+                user.isAccountNonExpired(),
+                user.isAccountNonLocked(),
+                user.isCredentialsNonExpired(),
+                user.isEnabled()
+        );
+    }
+
+    @Nullable
+    @Override
+    public SpringUser getUserFromCache(@Nonnull final String username) {
+        final var user = users.getIfPresent(username);
+        if (user == null) {
+            final var marker = new Object();
+            loadMarkers.put(username, marker);
+            loadMarker.set(marker);
+            return null;
+        } else {
+            return copy(user);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Users that are not {@link SpringUser} objects are not cached.
+     * Nor is a user that was removed since this thread last missed it,
+     * because the given user might have been loaded before the change.
+     * </p>
+     */
+    @Override
+    public void putUserInCache(@Nonnull final UserDetails user) {
+        final var marker = loadMarker.get();
+        loadMarker.remove();
+        if (marker != null && user instanceof final SpringUser springUser) {
+            final var copy = copy(springUser);
+            users.asMap().compute(springUser.getUsername(),
+                    (k, old) -> loadMarkers.asMap().remove(k, marker) ? copy : old);
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(@Nonnull final String username) {
+        loadMarkers.invalidate(username);
+        users.invalidate(username);
+    }
+
+    /**
+     * <p>
+     * Remove the user with a given ID, if it is cached.
+     * </p>
+     * <p>
+     * This is for use when only the ID of a changed user is known.
+     * It is slower than {@linkplain #removeUserFromCache(String) removing by username},
+     * because it scans the cache.
+     * The username of a user being loaded is not known,
+     * so this discards the load markers of all users.
+     * </p>
+     */
+    public void removeUserFromCacheById(@Nonnull final UUID id) {
+        Objects.requireNonNull(id, "id");
+        loadMarkers.invalidateAll();
+        users.asMap().values().removeIf(user -> id.equals(user.getId()));
+    }
+
+    /**
+     * <p>
+     * Remove all cached users.
+     * </p>
+     */
+    public void removeAllUsersFromCache() {
+        loadMarkers.invalidateAll();
+        users.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(@Nonnull final MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "users");
+    }
+}
@@ -34,6 +34,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -276,6 +277,20 @@ public final class McBackEndClient {
         return request.exchange();
     }
 
+    @Nonnull
+    public WebTestClient.ResponseSpec getGames(
+            @Nonnull final Collection<UUID> gameIds,
+            @Nullable final BasicUserDetails authenticatingUser,
+            @Nonnull final MultiValueMap<String, HttpCookie> cookies,
+            final boolean includeSessionCookie,
+            final boolean includeXsrfToken) {
+        final var request = connectWebTestClient().get()
+                .uri(Paths.createPathForGames(gameIds))
+                .accept(MediaType.APPLICATION_JSON);
+        secure(request, authenticatingUser, cookies, includeSessionCookie, includeXsrfToken);
+        return request.exchange();
+    }
+
     @Nonnull
     public WebTestClient.ResponseSpec getGamesOfScenario(
             @Nonnull final UUID scenarioId,
@@ -319,4 +334,11 @@ public final class McBackEndClient {
                 .accept(MediaType.APPLICATION_JSON)
                 .exchange();
     }
+
+    public WebTestClient.ResponseSpec getPrometheusMetrics() {
+        return connectWebTestClient()
+                .get().uri("/actuator/prometheus")
+                .accept(MediaType.TEXT_PLAIN)
+                .exchange();
+    }
 }
@@ -222,7 +222,16 @@ public final class McBackEndProcess implements AutoCloseable {
             @Nonnull final String mongoDbPassword,
             @Nonnull final String administratorPassword
     ) throws IllegalStateException, TimeoutException {
-        this(randomServerPort(), randomServerPort(), dbUri, mongoDbPassword, administratorPassword, List.of());
+        this(dbUri, mongoDbPassword, administratorPassword, List.of());
+    }
+
+    public McBackEndProcess(
+            @Nonnull final String dbUri,
+            @Nonnull final String mongoDbPassword,
+            @Nonnull final String administratorPassword,
+            @Nonnull final List<String> options
+    ) throws IllegalStateException, TimeoutException {
+        this(randomServerPort(), randomServerPort(), dbUri, mongoDbPassword, administratorPassword, options);
     }
 
     private static int randomServerPort() {
@@ -0,0 +1,62 @@
+package uk.badamson.mc;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import uk.badamson.mc.repository.GameDTO;
+import uk.badamson.mc.rest.GameResponse;
+import uk.badamson.mc.spring.SpringUser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class NativeRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    public NativeRuntimeHintsTest() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    public void documents() {
+        for (final var type : NativeRuntimeHints.DOCUMENT_TYPES) {
+            assertThat(type.getName(), RuntimeHintsPredicates.reflection().onType(type).test(hints));
+        }
+        assertThat("constructors of GameDTO",
+                RuntimeHintsPredicates.reflection().onType(GameDTO.class)
+                        .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                        .test(hints));
+        assertThat("constructors of SpringUser",
+                RuntimeHintsPredicates.reflection().onType(SpringUser.class)
+                        .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                        .test(hints));
+    }
+
+    @Test
+    public void bodies() {
+        for (final var type : NativeRuntimeHints.BODY_TYPES) {
+            assertThat(type.getName(), RuntimeHintsPredicates.reflection().onType(type).test(hints));
+        }
+        assertThat("nested type", RuntimeHintsPredicates.reflection()
+                .onType(GameResponse.RunStateResponse.class).test(hints));
+    }
+}
@@ -0,0 +1,243 @@
+package uk.badamson.mc.load;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.testcontainers.containers.MongoDBContainer;
+import uk.badamson.mc.BasicUserDetails;
+import uk.badamson.mc.Fixtures;
+import uk.badamson.mc.McBackEndClient;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * <p>
+ * Load tests of the server, running typical scenarios against the boot JAR
+ * with a MongoDB database in a container.
+ * </p>
+ * <p>
+ * Each test prints (and, if the {@code mc.load.reportDirectory} system property is set, writes)
+ * the throughput and p50 and p99 latency of each endpoint used.
+ * The load can be adjusted through system properties:
+ * </p>
+ * <ul>
+ * <li>{@code mc.load.players}: the number of concurrent simulated clients.</li>
+ * <li>{@code mc.load.playersPerGame}: for joining games,
+ * the number of players competing to join each game.</li>
+ * <li>{@code mc.load.duration}: how long each test that runs for a fixed duration should run,
+ * in ISO-8601 format.</li>
+ * <li>{@code mc.load.serverOptions}: additional command-line options for the server,
+ * separated by spaces.</li>
+ * </ul>
+ */
+@Tag("Load")
+public class EndpointLoadIT {
+
+    private static final int PLAYERS = Integer.getInteger("mc.load.players", 200);
+    private static final int PLAYERS_PER_GAME = Integer.getInteger("mc.load.playersPerGame", 20);
+    private static final Duration DURATION = Duration.parse(System.getProperty("mc.load.duration", "PT30S"));
+    private static final List<String> SERVER_OPTIONS = parseServerOptions(System.getProperty("mc.load.serverOptions", ""));
+
+    private static MongoDBContainer mongoDBContainer;
+    private static LoadTestServer server;
+
+    @Nonnull
+    private static List<String> parseServerOptions(@Nonnull final String options) {
+        return options.isBlank() ? List.of() : List.of(options.trim().split("\\s+"));
+    }
+
+    @BeforeAll
+    public static void setUp() throws TimeoutException {
+        mongoDBContainer = new MongoDBContainer(Fixtures.MONGO_DB_IMAGE);
+        mongoDBContainer.start();
+        server = new LoadTestServer(mongoDBContainer, SERVER_OPTIONS);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        if (server != null) {
+            server.assertThatNoErrorMessagesLogged();
+            server.close();
+            server = null;
+        }
+        if (mongoDBContainer != null) {
+            mongoDBContainer.close();
+        }
+    }
+
+    @Nonnull
+    private static List<BasicUserDetails> addUsers(final int n, @Nonnull final Supplier<BasicUserDetails> factory) {
+        final List<BasicUserDetails> result = new ArrayList<>(n);
+        for (int u = 0; u < n; ++u) {
+            final var user = factory.get();
+            server.addUser(user);
+            result.add(user);
+        }
+        return result;
+    }
+
+    private static boolean isJoinOutcome(@Nonnull final HttpStatusCode status) {
+        // Players who lose the race to join a game are refused, rather than suffering an error.
+        return status.is3xxRedirection()
+                || status.isSameCodeAs(HttpStatus.FORBIDDEN)
+                || status.isSameCodeAs(HttpStatus.CONFLICT);
+    }
+
+    @Nonnull
+    private static MultiValueMap<String, HttpCookie> getCookies(@Nonnull final EntityExchangeResult<?> result) {
+        final MultiValueMap<String, HttpCookie> cookies = new LinkedMultiValueMap<>();
+        result.getResponseCookies().forEach(cookies::addAll);
+        return cookies;
+    }
+
+    /**
+     * <p>
+     * Many players repeatedly poll the state of the game they are playing,
+     * as the front-end does.
+     * </p>
+     */
+    @Test
+    public void pollGame() throws InterruptedException {
+        final UUID game = server.createGame(server.getAScenarioId());
+        final var accounts = addUsers(Math.min(PLAYERS, 20), Fixtures::createBasicUserDetailsWithPlayerRole);
+        final List<LoadGenerator.Client> players = new ArrayList<>(PLAYERS);
+        for (int p = 0; p < PLAYERS; ++p) {
+            final var user = accounts.get(p % accounts.size());
+            players.add(new LoadGenerator.Client() {
+                private MultiValueMap<String, HttpCookie> cookies;
+
+                @Override
+                public void iterate(@Nonnull final LoadGenerator generator) {
+                    if (cookies == null) {
+                        cookies = server.login(user);
+                    }
+                    generator.timed("GET /api/game/{game}",
+                            () -> server.getClient().getGame(game, null, cookies, true, false));
+                    generator.timed("GET /api/self/current-game",
+                            () -> server.getClient().getCurrentGame(null, cookies, true, false),
+                            status -> status.is2xxSuccessful() || status.isSameCodeAs(HttpStatus.NOT_FOUND));
+                }
+            });
+        }
+
+        final var report = LoadGenerator.run(players, DURATION);
+
+        report.publish("pollGame");
+        assertThat("no failures", report.getFailures(), is(0L));
+    }
+
+    /**
+     * <p>
+     * Many players try to join a few games at the same moment,
+     * with more players than characters in each game.
+     * </p>
+     */
+    @Test
+    public void concurrentJoins() throws InterruptedException {
+        final var scenario = server.getAScenarioId();
+        final int nGames = Math.max(1, PLAYERS / PLAYERS_PER_GAME);
+        final List<UUID> games = new ArrayList<>(nGames);
+        for (int g = 0; g < nGames; ++g) {
+            games.add(server.createGame(scenario));
+        }
+        final var accounts = addUsers(nGames * PLAYERS_PER_GAME, Fixtures::createBasicUserDetailsWithPlayerRole);
+        final List<LoadGenerator.Client> players = new ArrayList<>(accounts.size());
+        for (int p = 0; p < accounts.size(); ++p) {
+            final var game = games.get(p % nGames);
+            final var cookies = server.login(accounts.get(p));
+            players.add(generator -> generator.timed("POST /api/game/{game}?join",
+                    () -> server.getClient().joinGame(game, null, cookies, true, true),
+                    EndpointLoadIT::isJoinOutcome));
+        }
+
+        final var report = LoadGenerator.burst(players);
+
+        report.publish("concurrentJoins");
+        assertThat("no failures", report.getFailures(), is(0L));
+    }
+
+    /**
+     * <p>
+     * Several game managers repeatedly create games.
+     * </p>
+     */
+    @Test
+    public void gameCreationBurst() throws InterruptedException {
+        final var scenario = server.getAScenarioId();
+        final var managers = addUsers(Math.max(1, PLAYERS / 10), Fixtures::createBasicUserDetailsWithManageGamesRole);
+        final List<LoadGenerator.Client> clients = new ArrayList<>(managers.size());
+        for (final var manager : managers) {
+            final var cookies = server.login(manager);
+            clients.add(generator -> generator.timed("POST /api/scenario/{scenario}/games",
+                    () -> server.getClient().createGameForScenario(scenario, null, cookies, true, true)));
+        }
+
+        final var report = LoadGenerator.run(clients, DURATION);
+
+        report.publish("gameCreationBurst");
+        assertThat("no failures", report.getFailures(), is(0L));
+    }
+
+    /**
+     * <p>
+     * Many users repeatedly log in and log out.
+     * </p>
+     */
+    @Test
+    public void loginStorm() throws InterruptedException {
+        final var accounts = addUsers(Math.min(PLAYERS, 20), Fixtures::createBasicUserDetailsWithPlayerRole);
+        final List<LoadGenerator.Client> clients = new ArrayList<>(PLAYERS);
+        for (int c = 0; c < PLAYERS; ++c) {
+            final var user = accounts.get(c % accounts.size());
+            clients.add(generator -> {
+                final var login = generator.timed("GET /api/self",
+                        () -> server.getClient().getSelf(user));
+                final var cookies = getCookies(login);
+                if (cookies.containsKey(McBackEndClient.SESSION_COOKIE_NAME)
+                        && cookies.containsKey(McBackEndClient.XSRF_TOKEN_COOKIE_NAME)) {
+                    generator.timed("POST /logout",
+                            () -> server.getClient().logout(null, cookies, true, true));
+                }
+            });
+        }
+
+        final var report = LoadGenerator.run(clients, DURATION);
+
+        report.publish("loginStorm");
+        assertThat("no failures", report.getFailures(), is(0L));
+    }
+}
@@ -0,0 +1,104 @@
+package uk.badamson.mc.load;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Thread-safe record of the latencies of requests made during a load test,
+ * and whether they succeeded, for each endpoint.
+ * </p>
+ */
+public final class LatencyStatistics {
+
+    private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    public void record(@Nonnull final String endpoint, final long latencyNanos, final boolean success) {
+        final var endpointLatencies = latencies.computeIfAbsent(endpoint, e -> new ArrayList<>());
+        synchronized (endpointLatencies) {
+            endpointLatencies.add(latencyNanos);
+        }
+        final var endpointFailures = failures.computeIfAbsent(endpoint, e -> new AtomicLong());
+        if (!success) {
+            endpointFailures.incrementAndGet();
+        }
+    }
+
+    @Nonnull
+    private static Duration percentile(@Nonnull final long[] sorted, final double fraction) {
+        if (sorted.length == 0) {
+            return Duration.ZERO;
+        }
+        final int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return Duration.ofNanos(sorted[Math.max(0, index)]);
+    }
+
+    /**
+     * <p>
+     * Summarise the requests made to each endpoint.
+     * </p>
+     *
+     * @param elapsed The duration of the load test, for computing throughput.
+     */
+    @Nonnull
+    public SortedMap<String, Summary> summarise(@Nonnull final Duration elapsed) {
+        final SortedMap<String, Summary> result = new TreeMap<>();
+        final double seconds = elapsed.toNanos() / 1.0E9;
+        latencies.forEach((endpoint, endpointLatencies) -> {
+            final long[] sorted;
+            synchronized (endpointLatencies) {
+                sorted = endpointLatencies.stream().mapToLong(Long::longValue).toArray();
+            }
+            Arrays.sort(sorted);
+            result.put(endpoint, new Summary(
+                    endpoint,
+                    sorted.length,
+                    failures.get(endpoint).get(),
+                    sorted.length / seconds,
+                    percentile(sorted, 0.50),
+                    percentile(sorted, 0.99)
+            ));
+        });
+        return result;
+    }
+
+    public record Summary(
+            @Nonnull String endpoint,
+            long count,
+            long failures,
+            double throughput,
+            @Nonnull Duration p50,
+            @Nonnull Duration p99
+    ) {
+
+        @Nonnull
+        @Override
+        public String toString() {
+            return String.format("%-24s count=%8d failures=%6d throughput=%10.1f/s p50=%8.2f ms p99=%8.2f ms",
+                    endpoint, count, failures, throughput,
+                    p50.toNanos() / 1.0E6, p99.toNanos() / 1.0E6);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package uk.badamson.mc.load;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Runs many concurrent simulated clients against a server for a given duration,
+ * recording the latency of each request they make.
+ * </p>
+ * <p>
+ * Each simulated client has its own (platform) thread,
+ * and makes its requests one after another, without pausing between them.
+ * </p>
+ */
+public final class LoadGenerator {
+
+    /**
+     * <p>
+     * The behaviour of one simulated client.
+     * </p>
+     */
+    @FunctionalInterface
+    public interface Client {
+
+        /**
+         * <p>
+         * Make one request, or a short sequence of requests.
+         * </p>
+         * <p>
+         * This is called repeatedly until the load test ends.
+         * </p>
+         */
+        void iterate(@Nonnull LoadGenerator generator);
+    }
+
+    private final LatencyStatistics statistics = new LatencyStatistics();
+    private volatile Instant end = Instant.MAX;
+
+    /**
+     * <p>
+     * Make a request and record its latency and whether it succeeded.
+     * </p>
+     * <p>
+     * The latency includes reading the whole of the response body.
+     * </p>
+     *
+     * @param acceptable Whether the status of a response indicates that the request succeeded.
+     *                   Responses that indicate a conflict with the requests of other clients
+     *                   can be acceptable for some load tests.
+     */
+    @Nonnull
+    public EntityExchangeResult<byte[]> timed(
+            @Nonnull final String endpoint,
+            @Nonnull final Supplier<WebTestClient.ResponseSpec> request,
+            @Nonnull final Predicate<HttpStatusCode> acceptable) {
+        Objects.requireNonNull(endpoint, "endpoint");
+        final long start = System.nanoTime();
+        final var result = request.get().expectBody().returnResult();
+        final long latency = System.nanoTime() - start;
+        statistics.record(endpoint, latency, acceptable.test(result.getStatus()));
+        return result;
+    }
+
+    /**
+     * <p>
+     * Make a request and record its latency and whether it succeeded.
+     * </p>
+     * <p>
+     * The latency includes reading the whole of the response body.
+     * A request succeeds if its response has a 2xx or 3xx status.
+     * </p>
+     */
+    @Nonnull
+    public EntityExchangeResult<byte[]> timed(
+            @Nonnull final String endpoint,
+            @Nonnull final Supplier<WebTestClient.ResponseSpec> request) {
+        return timed(endpoint, request, status -> status.is2xxSuccessful() || status.is3xxRedirection());
+    }
+
+    /**
+     * <p>
+     * Run a load test, and report the statistics of the requests made during it.
+     * </p>
+     *
+     * @param clients  The simulated clients; each has its own thread.
+     * @param duration How long the simulated clients should keep making requests.
+     */
+    @Nonnull
+    public static Report run(
+            @Nonnull final List<? extends Client> clients,
+            @Nonnull final Duration duration
+    ) throws InterruptedException {
+        final var generator = new LoadGenerator();
+        final var start = Instant.now();
+        generator.end = start.plus(duration);
+        final ExecutorService executor = Executors.newFixedThreadPool(clients.size());
+        try {
+            final List<Future<?>> futures = new ArrayList<>(clients.size());
+            for (final var client : clients) {
+                futures.add(executor.submit(() -> {
+                    while (Instant.now().isBefore(generator.end)) {
+                        client.iterate(generator);
+                    }
+                }));
+            }
+            for (final var future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        final var elapsed = Duration.between(start, Instant.now());
+        return new Report(elapsed, generator.statistics.summarise(elapsed).values().stream().toList());
+    }
+
+    /**
+     * <p>
+     * Run a burst of requests, and report the statistics of the requests.
+     * </p>
+     * <p>
+     * Each simulated client {@linkplain Client#iterate(LoadGenerator) iterates} once,
+     * and all the clients start at (nearly) the same time.
+     * </p>
+     *
+     * @param clients The simulated clients; each has its own thread.
+     */
+    @Nonnull
+    public static Report burst(@Nonnull final List<? extends Client> clients) throws InterruptedException {
+        final var generator = new LoadGenerator();
+        final var ready = new CountDownLatch(clients.size());
+        final var go = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(clients.size());
+        final Instant start;
+        try {
+            final List<Future<?>> futures = new ArrayList<>(clients.size());
+            for (final var client : clients) {
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    client.iterate(generator);
+                    return null;
+                }));
+            }
+            ready.await();
+            start = Instant.now();
+            go.countDown();
+            for (final var future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        final var elapsed = Duration.between(start, Instant.now());
+        return new Report(elapsed, generator.statistics.summarise(elapsed).values().stream().toList());
+    }
+
+    public record Report(
+            @Nonnull Duration elapsed,
+            @Nonnull List<LatencyStatistics.Summary> endpoints
+    ) {
+
+        @Nonnegative
+        public long getFailures() {
+            return endpoints.stream().mapToLong(LatencyStatistics.Summary::failures).sum();
+        }
+
+        @Nonnegative
+        public double getThroughput() {
+            return endpoints.stream().mapToDouble(LatencyStatistics.Summary::throughput).sum();
+        }
+
+        @Nonnull
+        @Override
+        public String toString() {
+            final var result = new StringBuilder();
+            endpoints.forEach(e -> result.append(e).append('\n'));
+            return result.toString();
+        }
+
+        /**
+         * <p>
+         * Print this report, and also write it to a file if the {@code mc.load.reportDirectory}
+         * system property names a directory.
+         * </p>
+         *
+         * @param name The name of the load test, used as the base name of the file.
+         */
+        public void publish(@Nonnull final String name) {
+            final String text = name + " (" + elapsed + ")\n" + this;
+            System.out.print(text);
+            final var directory = System.getProperty("mc.load.reportDirectory");
+            if (directory != null) {
+                try {
+                    final var path = Files.createDirectories(Path.of(directory)).resolve(name + ".txt");
+                    Files.writeString(path, text, StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package uk.badamson.mc.load;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.springframework.http.HttpCookie;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.testcontainers.containers.MongoDBContainer;
+import uk.badamson.mc.*;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <p>
+ * A back-end server process, and a client for it, set up for a load test.
+ * </p>
+ */
+public final class LoadTestServer implements AutoCloseable {
+    private static final String MONGO_DB_PASSWORD = "LetMeIn1";
+    private static final String ADMINISTRATOR_PASSWORD = Fixtures.ADMINISTRATOR.getPassword();
+
+    @Nonnull
+    private final McBackEndProcess process;
+    @Nonnull
+    private final McBackEndClient client;
+
+    /**
+     * @param options Additional command-line options for the server.
+     */
+    public LoadTestServer(
+            @Nonnull final MongoDBContainer mongoDBContainer,
+            @Nonnull final List<String> options
+    ) throws TimeoutException {
+        process = new McBackEndProcess(
+                mongoDBContainer.getReplicaSetUrl(), MONGO_DB_PASSWORD, ADMINISTRATOR_PASSWORD, options);
+        client = new McBackEndClient("localhost", process.getServerPort());
+    }
+
+    @Nonnull
+    public McBackEndClient getClient() {
+        return client;
+    }
+
+    @Nonnull
+    public MultiValueMap<String, HttpCookie> login(@Nonnull final BasicUserDetails user) {
+        final var response = client.getSelf(user);
+        response.expectStatus().isOk();
+        final var cookies = response.returnResult(String.class).getResponseCookies();
+        final MultiValueMap<String, HttpCookie> result = new LinkedMultiValueMap<>();
+        cookies.forEach(result::addAll);
+        return result;
+    }
+
+    public void logout(@Nonnull final MultiValueMap<String, HttpCookie> cookies) {
+        client.logout(null, cookies, true, true).expectStatus().is2xxSuccessful();
+    }
+
+    @Nonnull
+    public UUID addUser(@Nonnull final BasicUserDetails userDetails) {
+        Objects.requireNonNull(userDetails, "userDetails");
+        final var cookies = login(Fixtures.ADMINISTRATOR);
+        try {
+            final var response = client.addUser(Fixtures.ADMINISTRATOR, userDetails, cookies, true, true);
+            response.expectStatus().isFound();
+            final var location = response.returnResult(Void.class).getResponseHeaders().getLocation();
+            if (location == null) {
+                throw new IllegalStateException("response has Location header");
+            }
+            return UUID.fromString(McBackEndClient.USER_URI_TEMPLATE.match(location.toString()).get("id"));
+        } finally {
+            logout(cookies);
+        }
+    }
+
+    @Nonnull
+    public UUID getAScenarioId() {
+        return client.getAllScenarios().returnResult(NamedUUID.class)
+                .getResponseBody().toStream().findAny().orElseThrow().getId();
+    }
+
+    @Nonnull
+    public UUID createGame(@Nonnull final UUID scenario) {
+        final var cookies = login(Fixtures.ADMINISTRATOR);
+        try {
+            final var response = client.createGameForScenario(scenario, Fixtures.ADMINISTRATOR, cookies, true, true);
+            response.expectStatus().isFound();
+            return McBackEndClient.parseCreateGameResponse(response);
+        } finally {
+            logout(cookies);
+        }
+    }
+
+    public void assertThatNoErrorMessagesLogged() {
+        process.assertThatNoErrorMessagesLogged();
+    }
+
+    @Override
+    public void close() {
+        process.close();
+    }
+}
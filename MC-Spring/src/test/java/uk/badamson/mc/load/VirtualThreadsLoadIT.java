@@ -0,0 +1,124 @@
+package uk.badamson.mc.load;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpCookie;
+import org.springframework.util.MultiValueMap;
+import org.testcontainers.containers.MongoDBContainer;
+import uk.badamson.mc.BasicUserDetails;
+import uk.badamson.mc.Fixtures;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * <p>
+ * Compares the throughput of the server when many players poll the state of a game,
+ * with and without virtual threads for handling requests.
+ * </p>
+ * <p>
+ * The number of concurrent players exceeds the default size of the Tomcat thread pool,
+ * so with platform threads some requests must wait for a thread.
+ * The number of players and the duration of each run can be set through the
+ * {@code mc.load.players} and {@code mc.load.duration} system properties.
+ * The server process is run using the same version of Java as the test.
+ * </p>
+ */
+@Tag("Load")
+public class VirtualThreadsLoadIT {
+
+    private static final int PLAYERS = Integer.getInteger("mc.load.players", 400);
+    private static final int ACCOUNTS = 20;
+    private static final Duration DURATION = Duration.parse(System.getProperty("mc.load.duration", "PT30S"));
+
+    private static MongoDBContainer mongoDBContainer;
+
+    @BeforeAll
+    public static void setUp() {
+        mongoDBContainer = new MongoDBContainer(Fixtures.MONGO_DB_IMAGE);
+        mongoDBContainer.start();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        if (mongoDBContainer != null) {
+            mongoDBContainer.close();
+        }
+    }
+
+    @Nonnull
+    private static LoadGenerator.Report pollGame(final boolean virtualThreads)
+            throws TimeoutException, InterruptedException {
+        try (var server = new LoadTestServer(mongoDBContainer,
+                List.of("--spring.threads.virtual.enabled=" + virtualThreads))) {
+            final UUID game = server.createGame(server.getAScenarioId());
+            final List<BasicUserDetails> accounts = new ArrayList<>(ACCOUNTS);
+            for (int a = 0; a < ACCOUNTS; ++a) {
+                final var user = Fixtures.createBasicUserDetailsWithPlayerRole();
+                server.addUser(user);
+                accounts.add(user);
+            }
+            final List<LoadGenerator.Client> players = new ArrayList<>(PLAYERS);
+            for (int p = 0; p < PLAYERS; ++p) {
+                final var user = accounts.get(p % ACCOUNTS);
+                players.add(new LoadGenerator.Client() {
+                    private MultiValueMap<String, HttpCookie> cookies;
+
+                    @Override
+                    public void iterate(@Nonnull final LoadGenerator generator) {
+                        if (cookies == null) {
+                            cookies = server.login(user);
+                        }
+                        generator.timed("GET /api/game/{game}",
+                                () -> server.getClient().getGame(game, null, cookies, true, false));
+                    }
+                });
+            }
+
+            final var report = LoadGenerator.run(players, DURATION);
+
+            server.assertThatNoErrorMessagesLogged();
+            return report;
+        }
+    }
+
+    @Test
+    public void compareThroughput() throws TimeoutException, InterruptedException {
+        final var platform = pollGame(false);
+        final var virtual = pollGame(true);
+
+        platform.publish("pollGame-platformThreads");
+        virtual.publish("pollGame-virtualThreads");
+        System.out.printf("throughput ratio (virtual/platform): %.2f%n",
+                virtual.getThroughput() / platform.getThroughput());
+        assertThat("no failures (platform threads)", platform.getFailures(), is(0L));
+        assertThat("no failures (virtual threads)", virtual.getFailures(), is(0L));
+    }
+}
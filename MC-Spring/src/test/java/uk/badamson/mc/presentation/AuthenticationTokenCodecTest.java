@@ -0,0 +1,128 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.badamson.mc.spring.SpringAuthority;
+import uk.badamson.mc.spring.SpringUser;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AuthenticationTokenCodecTest {
+
+    private static final byte[] KEY_A = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEY_B = "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII);
+    private static final Instant EXPIRES = Instant.parse("2024-06-01T12:00:00Z");
+
+    private final AuthenticationTokenCodec codec = new AuthenticationTokenCodec(KEY_A);
+
+    private static AuthenticationTokenCodec.Token createToken(final Set<SpringAuthority> authorities) {
+        final var user = new SpringUser(UUID.randomUUID(), "jeff", "password hash", authorities,
+                true, true, true, true);
+        return new AuthenticationTokenCodec.Token(UUID.randomUUID(), user, EXPIRES);
+    }
+
+    private static void assertEquivalent(
+            final AuthenticationTokenCodec.Token decoded,
+            final AuthenticationTokenCodec.Token token) {
+        assertThat(decoded, notNullValue());
+        assertThat(decoded.id(), is(token.id()));
+        assertThat(decoded.expires(), is(token.expires()));
+        final var user = decoded.user();
+        assertThat(user.getId(), is(token.user().getId()));
+        assertThat(user.getUsername(), is(token.user().getUsername()));
+        assertThat(user.getAuthorities(), is(token.user().getAuthorities()));
+        assertThat("password not recorded", user.getPassword(), nullValue());
+    }
+
+    @Nested
+    public class RoundTrip {
+
+        @Test
+        public void noAuthorities() {
+            test(EnumSet.noneOf(SpringAuthority.class));
+        }
+
+        @Test
+        public void player() {
+            test(EnumSet.of(SpringAuthority.ROLE_PLAYER));
+        }
+
+        @Test
+        public void allAuthorities() {
+            test(EnumSet.allOf(SpringAuthority.class));
+        }
+
+        private void test(final Set<SpringAuthority> authorities) {
+            final var token = createToken(authorities);
+
+            final var encoded = codec.encode(token);
+
+            assertThat("URL safe", encoded, matchesPattern("[A-Za-z0-9_\\-]+\\.[A-Za-z0-9_\\-]+"));
+            assertEquivalent(codec.decode(encoded), token);
+        }
+    }
+
+    @Test
+    public void shortKey() {
+        final var key = new byte[AuthenticationTokenCodec.MINIMUM_KEY_LENGTH - 1];
+
+        assertThrows(IllegalArgumentException.class, () -> new AuthenticationTokenCodec(key));
+    }
+
+    @Nested
+    public class Decode {
+
+        @Test
+        public void differentKey() {
+            final var encoded = new AuthenticationTokenCodec(KEY_B)
+                    .encode(createToken(EnumSet.of(SpringAuthority.ROLE_PLAYER)));
+
+            assertThat(codec.decode(encoded), nullValue());
+        }
+
+        @Test
+        public void tamperedPayload() {
+            final var token = createToken(EnumSet.of(SpringAuthority.ROLE_PLAYER));
+            final var signature = codec.encode(token).split("\\.")[1];
+            final var payload = codec.encode(createToken(EnumSet.allOf(SpringAuthority.class))).split("\\.")[0];
+
+            assertThat(codec.decode(payload + "." + signature), nullValue());
+        }
+
+        @Test
+        public void noSignature() {
+            assertThat(codec.decode("abcdef"), nullValue());
+        }
+
+        @Test
+        public void notBase64() {
+            assertThat(codec.decode("!!!.???"), nullValue());
+        }
+    }
+}
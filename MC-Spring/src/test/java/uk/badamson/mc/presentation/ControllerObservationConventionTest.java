@@ -0,0 +1,71 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import io.micrometer.common.KeyValue;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerMapping;
+import uk.badamson.mc.rest.Reasons;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItems;
+
+public class ControllerObservationConventionTest {
+
+    private final ControllerObservationConvention convention = new ControllerObservationConvention();
+
+    private static ServerRequestObservationContext createContext() {
+        final var request = new MockHttpServletRequest("GET", "/api/game/1");
+        final var response = new MockHttpServletResponse();
+        return new ServerRequestObservationContext(request, response);
+    }
+
+    @Test
+    public void noHandler() {
+        final var context = createContext();
+
+        final var keyValues = convention.getLowCardinalityKeyValues(context);
+
+        assertThat(keyValues.stream().toList(), hasItems(
+                KeyValue.of(ControllerObservationConvention.HANDLER_KEY, ControllerObservationConvention.NONE),
+                KeyValue.of(ControllerObservationConvention.REASON_KEY, ControllerObservationConvention.NONE)
+        ));
+    }
+
+    @Test
+    public void rejected() throws NoSuchMethodException {
+        final var context = createContext();
+        context.getCarrier().setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Object(), Object.class.getMethod("toString")));
+        context.setError(new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND));
+
+        final var keyValues = convention.getLowCardinalityKeyValues(context);
+
+        assertThat(keyValues.stream().toList(), hasItems(
+                KeyValue.of(ControllerObservationConvention.HANDLER_KEY, "Object.toString"),
+                KeyValue.of(ControllerObservationConvention.REASON_KEY, Reasons.GAME_NOT_FOUND)
+        ));
+    }
+}
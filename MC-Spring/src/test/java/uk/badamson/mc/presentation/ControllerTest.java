@@ -36,9 +36,11 @@ import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 abstract class ControllerTest {
     private static final Instant NOW = Instant.now();
@@ -53,14 +55,15 @@ abstract class ControllerTest {
     private final UserSpringRepository userRepository = new FakeUserSpringRepository();
     private final MCSpringRepositoryAdapter repository = new MCSpringRepositoryAdapter(currentUserGameRepository, gameRepository, userRepository);
     protected final ScenarioSpringService scenarioService = new ScenarioSpringService(repository);
-    private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder = new AbstractPasswordEncoder() {
+    protected final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder = new AbstractPasswordEncoder() {
         @Override
         protected byte[] encode(CharSequence rawPassword, byte[] salt) {
             return rawPassword.toString().getBytes(StandardCharsets.UTF_8);
         }
     };
     protected final UserSpringService userService = new UserSpringService(passwordEncoder, ADMINISTRATOR_PASSWORD, repository);
-    protected final GameSpringService gameService = new GameSpringService(clock, scenarioService, userService, repository);
+    protected final List<Object> publishedEvents = new CopyOnWriteArrayList<>();
+    protected final GameSpringService gameService = new GameSpringService(clock, scenarioService, userService, repository, publishedEvents::add);
 
     @Nonnull
     protected static BasicUserDetails createBasicUserDetails(final Set<Authority> authorities) {
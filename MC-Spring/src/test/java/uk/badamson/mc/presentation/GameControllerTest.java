@@ -28,13 +28,13 @@ import uk.badamson.mc.FindGameResult;
 import uk.badamson.mc.Game;
 import uk.badamson.mc.NamedUUID;
 import uk.badamson.mc.rest.GameResponse;
+import uk.badamson.mc.rest.GameSummaryResponse;
 import uk.badamson.mc.spring.SpringUser;
 
 import javax.annotation.Nonnull;
-import java.util.EnumSet;
-import java.util.Optional;
-import java.util.Set;
-import java.util.UUID;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -43,6 +43,11 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 public class GameControllerTest extends ControllerTest {
     private final GameController gameController = new GameController(gameService);
 
+    @Nonnull
+    private String getCreationTitle(@Nonnull final UUID game) {
+        return gameService.getGameAsGameManager(game).orElseThrow().game().getCreated().toString();
+    }
+
     @Nested
     public class CreateGameForScenario {
 
@@ -97,6 +102,34 @@ public class GameControllerTest extends ControllerTest {
             assertThat(result, empty());
         }
 
+        @Test
+        public void hasGame() {
+            final var scenario = getValidScenarioId();
+            final var gameId = createGame();
+
+            final Set<NamedUUID> result = getGameIdentifiersOfScenario(scenario);
+
+            assertThat(result.stream().map(NamedUUID::getId).toList(), contains(gameId));
+            assertThat("title is creation time",
+                    result.stream().map(NamedUUID::getTitle).toList(), contains(getCreationTitle(gameId)));
+        }
+
+        @Test
+        public void severalGames() {
+            final var scenario = getValidScenarioId();
+            final Map<UUID, String> expected = new HashMap<>();
+            for (int i = 0; i < 3; ++i) {
+                final var game = createGame();
+                expected.put(game, getCreationTitle(game));
+            }
+
+            final Set<NamedUUID> result = getGameIdentifiersOfScenario(scenario);
+
+            final Map<UUID, String> titles = new HashMap<>();
+            result.forEach(n -> titles.put(n.getId(), n.getTitle()));
+            assertThat(titles, is(expected));
+        }
+
         private Set<NamedUUID> getGameIdentifiersOfScenario(
                 final UUID scenario) {
             Set<NamedUUID> result = gameController.getGameIdentifiersOfScenario(scenario);
@@ -106,6 +139,232 @@ public class GameControllerTest extends ControllerTest {
         }
     }
 
+    @Nested
+    public class GetPageOfGameIdentifiersOfScenario {
+
+        @Test
+        public void unknownScenario() {
+            final var scenario = UUID.randomUUID();
+
+            final var exception = assertThrows(ResponseStatusException.class,
+                    () -> getPage(scenario, null, null, 10));
+
+            assertThat(exception.getStatusCode(), is(HttpStatus.NOT_FOUND));
+        }
+
+        @Test
+        public void invalidLimit() {
+            final var scenario = getValidScenarioId();
+
+            final var exception = assertThrows(ResponseStatusException.class,
+                    () -> getPage(scenario, null, null, 0));
+
+            assertThat(exception.getStatusCode(), is(HttpStatus.BAD_REQUEST));
+        }
+
+        @Test
+        public void incompleteCursor() {
+            final var scenario = getValidScenarioId();
+
+            final var exception = assertThrows(ResponseStatusException.class,
+                    () -> getPage(scenario, null, UUID.randomUUID(), 10));
+
+            assertThat(exception.getStatusCode(), is(HttpStatus.BAD_REQUEST));
+        }
+
+        @Test
+        public void severalPages() {
+            final var scenario = getValidScenarioId();
+            final Set<UUID> games = Set.of(createGame(), createGame(), createGame());
+
+            final List<NamedUUID> page1 = getPage(scenario, null, null, 2);
+            final var last = page1.get(page1.size() - 1);
+            final List<NamedUUID> page2 = getPage(scenario, Instant.parse(last.getTitle()), last.getId(), 2);
+
+            assertThat(page1, hasSize(2));
+            final var all = new ArrayList<NamedUUID>();
+            all.addAll(page1);
+            all.addAll(page2);
+            assertThat(all.stream().map(NamedUUID::getId).toList(), containsInAnyOrder(games.toArray()));
+            for (final var identifier : all) {
+                assertThat("title is creation time", identifier.getTitle(), is(getCreationTitle(identifier.getId())));
+            }
+            final var inOrder = all.stream()
+                    .sorted(Comparator.comparing((NamedUUID n) -> Instant.parse(n.getTitle()))
+                            .thenComparing(NamedUUID::getId))
+                    .toList();
+            assertThat("in order of creation time and then identifier", all, is(inOrder));
+        }
+
+        private List<NamedUUID> getPage(
+                final UUID scenario,
+                final Instant afterCreated,
+                final UUID afterGame,
+                final int limit) {
+            try (Stream<NamedUUID> result = gameController.getPageOfGameIdentifiersOfScenario(
+                    scenario, limit, afterCreated, afterGame)) {
+                assertThat(result, notNullValue());
+                final List<NamedUUID> page = result.toList();
+                assertThat(page, not(hasItem((NamedUUID) null)));
+                assertThat(page.size(), lessThanOrEqualTo(limit));
+                return page;
+            }
+        }
+    }
+
+    @Nested
+    public class GetPageOfGameSummariesOfScenario {
+
+        @Test
+        public void unknownScenario() {
+            final var scenario = UUID.randomUUID();
+
+            final var exception = assertThrows(ResponseStatusException.class,
+                    () -> getPage(scenario, null, null, 10));
+
+            assertThat(exception.getStatusCode(), is(HttpStatus.NOT_FOUND));
+        }
+
+        @Test
+        public void invalidLimit() {
+            final var scenario = getValidScenarioId();
+
+            final var exception = assertThrows(ResponseStatusException.class,
+                    () -> getPage(scenario, null, null, 0));
+
+            assertThat(exception.getStatusCode(), is(HttpStatus.BAD_REQUEST));
+        }
+
+        @Test
+        public void severalPages() {
+            final var scenario = getValidScenarioId();
+            final Set<UUID> games = Set.of(createGame(), createGame(), createGame());
+
+            final List<GameSummaryResponse> page1 = getPage(scenario, null, null, 2);
+            final var last = page1.get(page1.size() - 1);
+            final List<GameSummaryResponse> page2 = getPage(scenario, last.created(), last.identifier(), 2);
+
+            assertThat(page1, hasSize(2));
+            final var all = new ArrayList<UUID>();
+            page1.forEach(g -> all.add(g.identifier()));
+            page2.forEach(g -> all.add(g.identifier()));
+            assertThat(all, containsInAnyOrder(games.toArray()));
+        }
+
+        @Test
+        public void reportsState() {
+            final var scenario = getValidScenarioId();
+            final var game = createGame();
+            gameService.endRecruitment(game);
+
+            final var page = getPage(scenario, null, null, GameController.MAX_GAMES_PAGE_SIZE);
+
+            final var summary = page.stream().filter(g -> g.identifier().equals(game)).findAny();
+            assertThat("summary", summary.isPresent());
+            assertThat(summary.get().scenario(), is(scenario));
+            assertThat(summary.get().recruiting(), is(false));
+        }
+
+        private List<GameSummaryResponse> getPage(
+                final UUID scenario,
+                final Instant afterCreated,
+                final UUID afterGame,
+                final int limit) {
+            try (Stream<GameSummaryResponse> result = gameController.getPageOfGameSummariesOfScenario(
+                    scenario, limit, afterCreated, afterGame)) {
+                assertThat(result, notNullValue());
+                final List<GameSummaryResponse> page = result.toList();
+                assertThat(page, not(hasItem((GameSummaryResponse) null)));
+                assertThat(page.size(), lessThanOrEqualTo(limit));
+                return page;
+            }
+        }
+    }
+
+    @Nested
+    public class GetGameSummaries {
+
+        @Test
+        public void someKnown() {
+            final var gameA = createGame();
+            final var gameB = createGame();
+            final var player = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER)).getId();
+            gameService.userJoinsGame(player, gameA);
+
+            final var response = gameController.getGameSummaries(List.of(gameB, UUID.randomUUID(), gameA)).toList();
+
+            assertThat(response.stream().map(GameSummaryResponse::identifier).toList(), contains(gameB, gameA));
+        }
+
+        @Test
+        public void tooMany() {
+            final List<UUID> games = Stream.generate(UUID::randomUUID)
+                    .limit(GameController.MAX_GAMES_BATCH_SIZE + 1)
+                    .toList();
+
+            final var exception = assertThrows(ResponseStatusException.class,
+                    () -> gameController.getGameSummaries(games));
+
+            assertThat(exception.getStatusCode(), is(HttpStatus.BAD_REQUEST));
+        }
+    }
+
+    @Nested
+    public class GetGames {
+
+        @Test
+        public void unknownGame() {
+            final var user = createSpringUser(Authority.ALL);
+
+            final var response = getGames(user, List.of(UUID.randomUUID()));
+
+            assertThat(response, empty());
+        }
+
+        @Test
+        public void someKnown() {
+            final var user = createSpringUser(EnumSet.of(Authority.ROLE_MANAGE_GAMES));
+            final var gameA = createGame();
+            final var gameB = createGame();
+
+            final var response = getGames(user, List.of(gameB, UUID.randomUUID(), gameA, gameB));
+
+            assertThat(response.stream().map(GameResponse::identifier).toList(), contains(gameB, gameA));
+        }
+
+        @Test
+        public void withPlayerRole() {
+            final var user = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER));
+            final var playerId = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER)).getId();
+            final var gameId = createGame();
+            gameService.userJoinsGame(playerId, gameId);
+
+            final var response = getGames(user, List.of(gameId));
+
+            assertThat(response, hasSize(1));
+            assertThat("Does not report game players", response.get(0).users(), anEmptyMap());
+        }
+
+        @Test
+        public void tooMany() {
+            final var user = createSpringUser(Authority.ALL);
+            final List<UUID> games = Stream.generate(UUID::randomUUID)
+                    .limit(GameController.MAX_GAMES_BATCH_SIZE + 1)
+                    .toList();
+
+            final var exception = assertThrows(ResponseStatusException.class, () -> getGames(user, games));
+
+            assertThat(exception.getStatusCode(), is(HttpStatus.BAD_REQUEST));
+        }
+
+        @Nonnull
+        private List<GameResponse> getGames(final SpringUser requestingUser, final List<UUID> games) {
+            final var response = gameController.getGames(requestingUser, games);
+            assertThat(response, notNullValue());
+            return response.toList();
+        }
+    }
+
     @Nested
     public class GetGame {
 
@@ -151,15 +410,89 @@ public class GameControllerTest extends ControllerTest {
             assertThrows(IllegalArgumentException.class, () -> getGame(user, gameId));
         }
 
+        @Test
+        public void unchangedGameHasSameEntityTag() {
+            final var user = createSpringUser(EnumSet.of(Authority.ROLE_MANAGE_GAMES));
+            final var gameId = createGame();
+
+            final var eTag1 = getGameEntity(user, gameId).getHeaders().getETag();
+            final var eTag2 = getGameEntity(user, gameId).getHeaders().getETag();
+
+            assertThat(eTag2, is(eTag1));
+        }
+
+        @Test
+        public void changedGameHasDifferentEntityTag() {
+            final var user = createSpringUser(EnumSet.of(Authority.ROLE_MANAGE_GAMES));
+            final var playerId = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER)).getId();
+            final var gameId = createGame();
+            final var eTag1 = getGameEntity(user, gameId).getHeaders().getETag();
+            gameService.userJoinsGame(playerId, gameId);
+
+            final var eTag2 = getGameEntity(user, gameId).getHeaders().getETag();
+
+            assertThat(eTag2, not(eTag1));
+        }
+
+        @Test
+        public void unchangedGameNotModified() {
+            final var user = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER));
+            final var gameId = createGame();
+            final var eTag = getGameEntity(user, gameId).getHeaders().getETag();
+
+            final var entity = gameController.getGame(user, gameId, eTag);
+
+            assertThat(entity.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+            assertThat(entity.getHeaders().getETag(), is(eTag));
+            assertThat(entity.getBody(), nullValue());
+        }
+
+        @Test
+        public void changedGameModified() {
+            final var user = createSpringUser(EnumSet.of(Authority.ROLE_MANAGE_GAMES));
+            final var playerId = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER)).getId();
+            final var gameId = createGame();
+            final var eTag = getGameEntity(user, gameId).getHeaders().getETag();
+            gameService.userJoinsGame(playerId, gameId);
+
+            final var entity = gameController.getGame(user, gameId, eTag);
+
+            assertThat(entity.getStatusCode(), is(HttpStatus.OK));
+            assertThat(entity.getBody(), notNullValue());
+        }
+
+        @Test
+        public void playersAndManagersHaveDifferentEntityTags() {
+            final var manager = createSpringUser(EnumSet.of(Authority.ROLE_MANAGE_GAMES));
+            final var player = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER));
+            final var gameId = createGame();
+
+            final var eTag1 = getGameEntity(manager, gameId).getHeaders().getETag();
+            final var eTag2 = getGameEntity(player, gameId).getHeaders().getETag();
+
+            assertThat(eTag2, not(eTag1));
+        }
+
         @Nonnull
         private GameResponse getGame(
                 final SpringUser requestingUser,
                 final UUID game) {
-            GameResponse response = gameController.getGame(requestingUser, game);
+            final var response = getGameEntity(requestingUser, game).getBody();
             assertThat(response, notNullValue());
             assertThat(response.identifier(), is(game));
             return response;
         }
+
+        @Nonnull
+        private ResponseEntity<GameResponse> getGameEntity(
+                final SpringUser requestingUser,
+                final UUID game) {
+            final var entity = gameController.getGame(requestingUser, game, null);
+            assertThat(entity, notNullValue());
+            assertThat(entity.getStatusCode(), is(HttpStatus.OK));
+            assertThat("Has entity tag", entity.getHeaders().getETag(), notNullValue());
+            return entity;
+        }
     }
 
     @Nested
@@ -0,0 +1,122 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uk.badamson.mc.Authority;
+import uk.badamson.mc.repository.RepositoryChangeEvent;
+import uk.badamson.mc.service.AllGamesChangedEvent;
+import uk.badamson.mc.service.GameChangedEvent;
+import uk.badamson.mc.spring.SpringUser;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GameEventsControllerTest extends ControllerTest {
+    private final GameEventsHub hub = new GameEventsHub(gameService, Runnable::run, Duration.ofMinutes(1));
+    private final GameEventsController controller = new GameEventsController(hub);
+
+    @Nested
+    public class SubscribeToGame {
+
+        @Test
+        public void unknownGame() {
+            final var user = createSpringUser(Authority.ALL);
+            final var game = UUID.randomUUID();
+
+            final var exception = assertThrows(ResponseStatusException.class, () -> subscribeToGame(user, game));
+
+            assertThat(exception.getStatusCode(), is(HttpStatus.NOT_FOUND));
+            assertThat(hub.getSubscriberCount(game), is(0));
+        }
+
+        @Test
+        public void asPlayer() {
+            final var user = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER));
+            final var game = createGame();
+
+            subscribeToGame(user, game);
+
+            assertThat(hub.getSubscriberCount(game), is(1));
+        }
+
+        @Test
+        public void gameChanges() {
+            final var manager = createSpringUser(EnumSet.of(Authority.ROLE_MANAGE_GAMES));
+            final var player = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER));
+            final var game = createGame();
+            subscribeToGame(manager, game);
+            subscribeToGame(player, game);
+
+            gameService.userJoinsGame(player.getId(), game);
+            gameService.endRecruitment(game);
+
+            assertThat(publishedEvents, contains(new GameChangedEvent(game), new GameChangedEvent(game)));
+            publishedEvents.forEach(e -> hub.onGameChanged((GameChangedEvent) e));
+            assertThat(hub.getSubscriberCount(game), is(2));
+        }
+
+        @Test
+        public void clientGone() {
+            final var manager = createSpringUser(EnumSet.of(Authority.ROLE_MANAGE_GAMES));
+            final var player = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER));
+            final var game = createGame();
+            subscribeToGame(manager, game).complete();
+            subscribeToGame(player, game);
+
+            hub.onGameChanged(new GameChangedEvent(game));
+
+            assertThat(hub.getSubscriberCount(game), is(1));
+        }
+
+        @Test
+        public void changesMissed() {
+            final var manager = createSpringUser(EnumSet.of(Authority.ROLE_MANAGE_GAMES));
+            final var player = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER));
+            final var game1 = createGame();
+            final var game2 = createGame();
+            subscribeToGame(manager, game1).complete();
+            subscribeToGame(player, game1);
+            subscribeToGame(manager, game2).complete();
+            publishedEvents.clear();
+
+            gameService.onRepositoryChanged(new RepositoryChangeEvent(RepositoryChangeEvent.Kind.GAME, null));
+
+            assertThat(publishedEvents, contains(new AllGamesChangedEvent()));
+            hub.onAllGamesChanged((AllGamesChangedEvent) publishedEvents.get(0));
+            assertThat(hub.getSubscriberCount(game1), is(1));
+            assertThat(hub.getSubscriberCount(game2), is(0));
+        }
+
+        private SseEmitter subscribeToGame(final SpringUser user, final UUID game) {
+            final var emitter = controller.subscribeToGame(user, game);
+            assertThat(emitter, notNullValue());
+            return emitter;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.session.MapSession;
+import org.springframework.session.MapSessionRepository;
+
+import java.time.Duration;
+import java.util.HashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class LazySessionRepositoryTest {
+
+    private static final Duration ACCESS_WRITE_INTERVAL = Duration.ofMinutes(1);
+
+    private static final class CountingSessionRepository extends MapSessionRepository {
+        private int saves;
+
+        CountingSessionRepository() {
+            super(new HashMap<>());
+        }
+
+        @Override
+        public void save(final MapSession session) {
+            ++saves;
+            super.save(session);
+        }
+    }
+
+    private final CountingSessionRepository delegate = new CountingSessionRepository();
+    private final LazySessionRepository<MapSession> repository
+            = new LazySessionRepository<>(delegate, ACCESS_WRITE_INTERVAL);
+
+    private String createSavedSession() {
+        final var session = repository.createSession();
+        session.setAttribute("a", "1");
+        repository.save(session);
+        return session.getId();
+    }
+
+    @Test
+    public void saveNew() {
+        final var session = repository.createSession();
+
+        repository.save(session);
+
+        assertThat("saved", delegate.saves, is(1));
+        assertThat("found", repository.findById(session.getId()), notNullValue());
+    }
+
+    @Test
+    public void findUnknown() {
+        assertThat(repository.findById("unknown"), nullValue());
+    }
+
+    @Test
+    public void deleteById() {
+        final var id = createSavedSession();
+
+        repository.deleteById(id);
+
+        assertThat(repository.findById(id), nullValue());
+    }
+
+    @Nested
+    public class SaveFound {
+
+        @Test
+        public void unchanged() {
+            final var id = createSavedSession();
+            final var session = repository.findById(id);
+            assertThat(session, notNullValue());
+
+            repository.save(session);
+
+            assertThat("not saved again", delegate.saves, is(1));
+        }
+
+        @Test
+        public void recentlyAccessed() {
+            final var id = createSavedSession();
+            final var session = repository.findById(id);
+            assertThat(session, notNullValue());
+            session.setLastAccessedTime(session.getLastAccessedTime().plus(ACCESS_WRITE_INTERVAL.dividedBy(2)));
+
+            repository.save(session);
+
+            assertThat("not saved again", delegate.saves, is(1));
+        }
+
+        @Test
+        public void longAfterAccess() {
+            final var id = createSavedSession();
+            final var session = repository.findById(id);
+            assertThat(session, notNullValue());
+            final var lastAccessedTime = session.getLastAccessedTime().plus(ACCESS_WRITE_INTERVAL);
+            session.setLastAccessedTime(lastAccessedTime);
+
+            repository.save(session);
+
+            assertThat("saved again", delegate.saves, is(2));
+            final var found = repository.findById(id);
+            assertThat(found, notNullValue());
+            assertThat(found.getLastAccessedTime(), is(lastAccessedTime));
+        }
+
+        @Test
+        public void setAttribute() {
+            final var id = createSavedSession();
+            final var session = repository.findById(id);
+            assertThat(session, notNullValue());
+            session.setAttribute("b", "2");
+
+            repository.save(session);
+
+            assertThat("saved again", delegate.saves, is(2));
+            final var found = repository.findById(id);
+            assertThat(found, notNullValue());
+            assertThat(found.getAttribute("b"), is("2"));
+        }
+
+        @Test
+        public void removeAttribute() {
+            final var id = createSavedSession();
+            final var session = repository.findById(id);
+            assertThat(session, notNullValue());
+            session.removeAttribute("a");
+
+            repository.save(session);
+
+            assertThat("saved again", delegate.saves, is(2));
+        }
+
+        @Test
+        public void twice() {
+            final var id = createSavedSession();
+            final var session = repository.findById(id);
+            assertThat(session, notNullValue());
+            session.setAttribute("b", "2");
+            repository.save(session);
+
+            repository.save(session);
+
+            assertThat("saved only once more", delegate.saves, is(2));
+        }
+    }
+}
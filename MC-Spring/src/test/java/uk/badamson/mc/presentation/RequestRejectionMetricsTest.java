@@ -0,0 +1,92 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import uk.badamson.mc.rest.Reasons;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class RequestRejectionMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestRejectionMetrics metrics = new RequestRejectionMetrics(meterRegistry);
+    private final HandlerMethod handler = createHandler();
+
+    private static HandlerMethod createHandler() {
+        try {
+            return new HandlerMethod(new Object(), Object.class.getMethod("toString"));
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void resolve(final Exception exception) {
+        final var result = metrics.resolveException(
+                new MockHttpServletRequest(), new MockHttpServletResponse(), handler, exception
+        );
+        assertThat("does not resolve the exception", result, nullValue());
+    }
+
+    private double count(final String name, final String reason) {
+        final var counter = meterRegistry.find(name)
+                .tag(ControllerObservationConvention.HANDLER_KEY, "Object.toString")
+                .tag(ControllerObservationConvention.REASON_KEY, reason)
+                .counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+
+    @Test
+    public void conflict() {
+        resolve(new ResponseStatusException(HttpStatus.CONFLICT, Reasons.GAME_STATE_CONFLICT));
+
+        assertThat(count(RequestRejectionMetrics.CONFLICTS, Reasons.GAME_STATE_CONFLICT), is(1.0));
+        assertThat(meterRegistry.find(RequestRejectionMetrics.NOT_FOUND).counter(), nullValue());
+    }
+
+    @Test
+    public void notFound() {
+        resolve(new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND));
+        resolve(new ResponseStatusException(HttpStatus.NOT_FOUND, Reasons.GAME_NOT_FOUND));
+
+        assertThat(count(RequestRejectionMetrics.NOT_FOUND, Reasons.GAME_NOT_FOUND), is(2.0));
+        assertThat(meterRegistry.find(RequestRejectionMetrics.CONFLICTS).counter(), nullValue());
+    }
+
+    @Test
+    public void badRequest() {
+        resolve(new ResponseStatusException(HttpStatus.BAD_REQUEST));
+
+        assertThat(meterRegistry.getMeters(), empty());
+    }
+
+    @Test
+    public void otherException() {
+        resolve(new IllegalStateException());
+
+        assertThat(meterRegistry.getMeters(), empty());
+    }
+}
@@ -18,32 +18,56 @@ package uk.badamson.mc.presentation;
  * along with MC.  If not, see <https://www.gnu.org/licenses/>.
  */
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
-import uk.badamson.mc.NamedUUID;
+import uk.badamson.mc.rest.NamedUUID;
 import uk.badamson.mc.rest.ScenarioResponse;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
-import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ScenarioControllerTest extends ControllerTest {
-    private final ScenarioController scenarioController = new ScenarioController(scenarioService);
+    private final ObjectMapper objectMapper = new PresentationLayerSpringConfiguration().objectMapper();
+    private final ScenarioController scenarioController = new ScenarioController(
+            new ScenarioCatalogue(scenarioService, objectMapper));
+
+    private static byte[] getContent(final ResponseEntity<byte[]> entity) {
+        assertThat(entity, notNullValue());
+        assertThat("Has entity tag", entity.getHeaders().getETag(), notNullValue());
+        assertThat("Cacheable", entity.getHeaders().getCacheControl(), containsString("max-age="));
+        assertThat(entity.getHeaders().getContentType(), is(MediaType.APPLICATION_JSON));
+        final var content = entity.getBody();
+        assertThat(content, notNullValue());
+        return content;
+    }
 
     @Test
-    public void getAll() {
-        Stream<NamedUUID> result = scenarioController.getAll();
+    public void getAll() throws IOException {
+        final var content = getContent(scenarioController.getAll());
 
-        assertThat(result, notNullValue());
-        Collection<NamedUUID> all = result.toList();
+        final List<NamedUUID> all = objectMapper.readValue(content, new TypeReference<>() {});
         assertThat(all, not(empty()));
+        assertThat(all.stream().map(NamedUUID::getId).toList(), hasItem(getValidScenarioId()));
+    }
+
+    @Test
+    public void getAllTwice() {
+        final var entity1 = scenarioController.getAll();
+        final var entity2 = scenarioController.getAll();
+
+        assertThat(entity2.getHeaders().getETag(), is(entity1.getHeaders().getETag()));
+        assertThat("Serialized once", entity2.getBody(), sameInstance(entity1.getBody()));
     }
 
     @Nested
@@ -59,16 +83,30 @@ public class ScenarioControllerTest extends ControllerTest {
         }
 
         @Test
-        public void knownScenario() {
+        public void knownScenario() throws IOException {
             final var scenario = getValidScenarioId();
 
             final var response = getScenario(scenario);
 
             assertThat(response.identifier(), is(scenario));
+            assertThat(response, is(ScenarioResponse.convertToResponse(
+                    scenario, scenarioService.getScenario(scenario).orElseThrow())));
+        }
+
+        @Test
+        public void sameEntityTag() {
+            final var scenario = getValidScenarioId();
+
+            final var eTag1 = scenarioController.getScenario(scenario).getHeaders().getETag();
+            final var eTag2 = scenarioController.getScenario(scenario).getHeaders().getETag();
+
+            assertThat(eTag1, notNullValue());
+            assertThat(eTag2, is(eTag1));
         }
 
-        private ScenarioResponse getScenario(final UUID scenarioId) {
-            final var response = scenarioController.getScenario(scenarioId);
+        private ScenarioResponse getScenario(final UUID scenarioId) throws IOException {
+            final var content = getContent(scenarioController.getScenario(scenarioId));
+            final var response = objectMapper.readValue(content, ScenarioResponse.class);
             assertThat(response, notNullValue());
             return response;
         }
@@ -0,0 +1,146 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.core.userdetails.cache.NullUserCache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SessionUserSecurityContextRepositoryTest {
+
+    private static final String USERNAME = "jeff";
+
+    private final Map<String, UserDetails> users = new HashMap<>();
+    private final SessionUserSecurityContextRepository repository = new SessionUserSecurityContextRepository(
+            username -> {
+                final var user = users.get(username);
+                if (user == null) {
+                    throw new UsernameNotFoundException(username);
+                }
+                return user;
+            },
+            new NullUserCache());
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private static UserDetails createUser(final boolean enabled) {
+        return User.withUsername(USERNAME).password("password").roles("PLAYER").disabled(!enabled).build();
+    }
+
+    private void saveAuthenticated(final UserDetails user) {
+        final var context = new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+                user, user.getPassword(), user.getAuthorities()));
+        repository.saveContext(context, request, response);
+    }
+
+    @Test
+    public void noSession() {
+        final var context = repository.loadDeferredContext(request);
+
+        assertThat(context.isGenerated(), is(true));
+        assertThat(context.get().getAuthentication(), nullValue());
+        assertThat(repository.containsContext(request), is(false));
+    }
+
+    @Nested
+    public class SaveAuthenticated {
+
+        @Test
+        public void storesOnlyUsername() {
+            final var user = createUser(true);
+            users.put(USERNAME, user);
+
+            saveAuthenticated(user);
+
+            final var session = request.getSession(false);
+            assertThat(session, notNullValue());
+            assertThat(session.getAttribute(SessionUserSecurityContextRepository.USERNAME_ATTRIBUTE), is(USERNAME));
+            assertThat(repository.containsContext(request), is(true));
+        }
+
+        @Test
+        public void thenLoad() {
+            final var user = createUser(true);
+            users.put(USERNAME, user);
+            saveAuthenticated(user);
+
+            final var context = repository.loadDeferredContext(request);
+
+            assertThat(context.isGenerated(), is(false));
+            final var authentication = context.get().getAuthentication();
+            assertThat(authentication, notNullValue());
+            assertThat(authentication.isAuthenticated(), is(true));
+            assertThat(authentication.getPrincipal(), sameInstance(user));
+            assertThat(authentication.getCredentials(), nullValue());
+        }
+
+        @Test
+        public void thenDisabled() {
+            final var user = createUser(true);
+            users.put(USERNAME, user);
+            saveAuthenticated(user);
+            users.put(USERNAME, createUser(false));
+
+            final var context = repository.loadDeferredContext(request);
+
+            assertThat(context.isGenerated(), is(true));
+            assertThat(context.get().getAuthentication(), nullValue());
+        }
+
+        @Test
+        public void thenDeleted() {
+            final var user = createUser(true);
+            users.put(USERNAME, user);
+            saveAuthenticated(user);
+            users.clear();
+
+            final var context = repository.loadDeferredContext(request);
+
+            assertThat(context.isGenerated(), is(true));
+        }
+
+        @Test
+        public void thenAnonymous() {
+            final var user = createUser(true);
+            users.put(USERNAME, user);
+            saveAuthenticated(user);
+            final var anonymous = new SecurityContextImpl(new AnonymousAuthenticationToken(
+                    "key", "anonymous", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+            repository.saveContext(anonymous, request, response);
+
+            assertThat(repository.containsContext(request), is(false));
+        }
+    }
+}
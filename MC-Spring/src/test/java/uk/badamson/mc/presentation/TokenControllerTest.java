@@ -0,0 +1,112 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.web.server.ResponseStatusException;
+import uk.badamson.mc.Authority;
+import uk.badamson.mc.rest.Paths;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.EnumSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TokenControllerTest extends ControllerTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    // The revocation list is not started, so this never connects to a server.
+    private final MongoClient mongoClient = MongoClients.create("mongodb://localhost:1");
+    private final AuthenticationTokenService tokenService = new AuthenticationTokenService(
+            true, new AuthenticationTokenCodec(KEY),
+            new TokenRevocationList(new MongoTemplate(mongoClient, "mc"), Duration.ofSeconds(10), Clock.systemUTC()),
+            Duration.ofMinutes(15), Clock.systemUTC());
+    private final TokenController controller = new TokenController(tokenService, createPasswordAuthentication());
+
+    private DaoAuthenticationProvider createPasswordAuthentication() {
+        final var provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(userService);
+        return provider;
+    }
+
+    @AfterEach
+    public void closeMongoClient() {
+        mongoClient.close();
+    }
+
+    private static MockHttpServletRequest createRequest(final String authorization) {
+        final var request = new MockHttpServletRequest("POST", Paths.TOKEN_PATH);
+        request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        return request;
+    }
+
+    private static String basic(final String username, final String password) {
+        return "Basic " + Base64.getEncoder().encodeToString(
+                (username + ':' + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void password() {
+        final var user = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER));
+
+        final var response = controller.issueToken(createRequest(basic(user.getUsername(), "secret")));
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        final var body = response.getBody();
+        assertThat(body, notNullValue());
+        final var authenticated = tokenService.authenticate(body.token());
+        assertThat(authenticated, notNullValue());
+        assertThat(authenticated.getId(), is(user.getId()));
+    }
+
+    @Test
+    public void wrongPassword() {
+        final var user = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER));
+
+        final var exception = assertThrows(ResponseStatusException.class,
+                () -> controller.issueToken(createRequest(basic(user.getUsername(), "wrong"))));
+
+        assertThat(exception.getStatusCode(), is(HttpStatus.UNAUTHORIZED));
+    }
+
+    @Test
+    public void bearerToken() {
+        final var user = createSpringUser(EnumSet.of(Authority.ROLE_PLAYER));
+        final var token = tokenService.issue(user).token();
+
+        final var exception = assertThrows(ResponseStatusException.class,
+                () -> controller.issueToken(createRequest(AuthenticationTokenFilter.BEARER_PREFIX + token)));
+
+        assertThat(exception.getStatusCode(), is(HttpStatus.UNAUTHORIZED));
+    }
+}
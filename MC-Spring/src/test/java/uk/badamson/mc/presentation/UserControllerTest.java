@@ -171,8 +171,11 @@ public class UserControllerTest extends ControllerTest {
         }
 
         private void test(final UUID id) {
-            final UserResponse response = userController.getUser(id);
+            final var entity = userController.getUser(id);
 
+            assertThat(entity, notNullValue());
+            assertThat("Has entity tag", entity.getHeaders().getETag(), notNullValue());
+            final UserResponse response = entity.getBody();
             assertThat(response, notNullValue());
             assertThat(response.id(), is(id));
         }
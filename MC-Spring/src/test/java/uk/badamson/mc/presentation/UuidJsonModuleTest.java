@@ -0,0 +1,93 @@
+package uk.badamson.mc.presentation;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UuidJsonModuleTest {
+
+    private static final UUID UUID_A = UUID.fromString("0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0");
+    private static final UUID UUID_B = new UUID(-1L, 0L);
+
+    private final ObjectMapper standardMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new UuidJsonModule())
+            .build();
+
+    @Test
+    public void writeSameAsStandard() throws Exception {
+        final var value = Map.of(UUID_A, UUID_B);
+
+        final var json = mapper.writeValueAsString(value);
+
+        assertThat(json, is(standardMapper.writeValueAsString(value)));
+    }
+
+    @Test
+    public void writeBytesSameAsStandard() throws Exception {
+        final var value = Map.of(UUID_B, UUID_A);
+
+        final var json = mapper.writeValueAsBytes(value);
+
+        assertThat(json, is(standardMapper.writeValueAsBytes(value)));
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        final var value = Map.of(UUID_A, UUID_B);
+
+        final var json = mapper.writeValueAsBytes(value);
+        final Map<UUID, UUID> read = mapper.readValue(json, new TypeReference<>() {
+        });
+
+        assertThat(read, is(value));
+    }
+
+    @Test
+    public void readUpperCase() throws Exception {
+        final var json = '"' + UUID_A.toString().toUpperCase() + '"';
+
+        assertThat(mapper.readValue(json, UUID.class), is(UUID_A));
+    }
+
+    @Test
+    public void readInvalid() {
+        final var json = "\"0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1fg\"";
+
+        assertThrows(InvalidFormatException.class, () -> mapper.readValue(json, UUID.class));
+    }
+
+    @Test
+    public void readMisplacedDash() {
+        final var json = "\"0f1e2d3c4-b5a-6978-8796-a5b4c3d2e1f0\"";
+
+        assertThrows(InvalidFormatException.class, () -> mapper.readValue(json, UUID.class));
+    }
+}
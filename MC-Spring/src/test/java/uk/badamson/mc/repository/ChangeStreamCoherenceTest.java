@@ -0,0 +1,91 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ChangeStreamCoherenceTest {
+
+    @Nested
+    public class GetRecordId {
+
+        @Test
+        public void standardUuid() {
+            final var id = UUID.randomUUID();
+            final var key = new BsonDocument("_id", new BsonBinary(id, UuidRepresentation.STANDARD));
+
+            assertThat(ChangeStreamCoherence.getRecordId(key), is(id));
+        }
+
+        @Test
+        public void legacyUuid() {
+            final var key = new BsonDocument("_id", new BsonBinary(UUID.randomUUID(), UuidRepresentation.JAVA_LEGACY));
+
+            assertThat(ChangeStreamCoherence.getRecordId(key), nullValue());
+        }
+
+        @Test
+        public void notUuid() {
+            final var key = new BsonDocument("_id", new BsonString("id"));
+
+            assertThat(ChangeStreamCoherence.getRecordId(key), nullValue());
+        }
+
+        @Test
+        public void noKey() {
+            assertThat(ChangeStreamCoherence.getRecordId(null), nullValue());
+        }
+    }
+
+    @Nested
+    public class GetErrorCode {
+
+        @Test
+        public void translated() {
+            final var cause = new MongoCommandException(
+                    new BsonDocument("ok", new BsonInt32(0))
+                            .append("code", new BsonInt32(ChangeStreamCoherence.CHANGE_STREAM_HISTORY_LOST))
+                            .append("errmsg", new BsonString("history lost")),
+                    new ServerAddress());
+            final var failure = new DataAccessResourceFailureException("failed", cause);
+
+            assertThat(ChangeStreamCoherence.getErrorCode(failure), is(ChangeStreamCoherence.CHANGE_STREAM_HISTORY_LOST));
+        }
+
+        @Test
+        public void notMongoDb() {
+            assertThat(ChangeStreamCoherence.getErrorCode(new IllegalStateException()), nullValue());
+        }
+    }
+}
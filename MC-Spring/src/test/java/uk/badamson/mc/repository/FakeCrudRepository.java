@@ -21,11 +21,14 @@ package uk.badamson.mc.repository;
 import org.springframework.data.repository.CrudRepository;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -39,11 +42,46 @@ abstract class FakeCrudRepository<T, ID> implements CrudRepository<T, ID> {
 
     @Nonnull
     @Override
+    @SuppressWarnings("unchecked")
     final public <S extends T> S save(@Nonnull S entity) {
-        data.put(idOf(entity), entity);
+        return (S) data.compute(idOf(entity), (id, existing) -> prepareToSave(existing, entity));
+    }
+
+    /**
+     * <p>
+     * Provide the entity to store when saving an entity.
+     * </p>
+     * <p>
+     * This is called atomically, so it can emulate optimistic locking.
+     * The default implementation stores the given entity unchanged.
+     * </p>
+     *
+     * @param existing The entity currently stored, or null if there is no stored entity.
+     * @param entity   The entity to save.
+     * @return The entity to store, which must have the same type as {@code entity}.
+     */
+    @Nonnull
+    protected T prepareToSave(@Nullable T existing, @Nonnull T entity) {
         return entity;
     }
 
+    /**
+     * <p>
+     * Atomically replace a stored entity.
+     * </p>
+     *
+     * @return whether the entity was stored and was replaced.
+     */
+    protected final boolean replace(@Nonnull ID id, @Nonnull UnaryOperator<T> update) {
+        final var replaced = new AtomicBoolean(false);
+        data.computeIfPresent(id, (k, existing) -> {
+            final var replacement = update.apply(existing);
+            replaced.set(replacement != existing);
+            return replacement;
+        });
+        return replaced.get();
+    }
+
     @Nonnull
     @Override
     public final <S extends T> Iterable<S> saveAll(@Nonnull Iterable<S> entities) {
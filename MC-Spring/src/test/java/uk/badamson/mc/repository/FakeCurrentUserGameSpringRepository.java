@@ -24,6 +24,11 @@ import java.util.UUID;
 
 public final class FakeCurrentUserGameSpringRepository extends FakeCrudRepository<UserGameAssociationDTO, UUID> implements CurrentUserGameSpringRepository {
 
+    @Override
+    public void setGame(@Nonnull UUID user, @Nonnull UUID game) {
+        save(new UserGameAssociationDTO(user, game));
+    }
+
     @Nonnull
     @Override
     protected UUID idOf(@Nonnull UserGameAssociationDTO entity) {
@@ -18,11 +18,164 @@ package uk.badamson.mc.repository;
  * along with MC.  If not, see <https://www.gnu.org/licenses/>.
  */
 
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class FakeGameSpringRepository extends FakeCrudRepository<GameDTO, UUID> implements GameSpringRepository {
+
+    private static final Comparator<GameDTO> CREATION_ORDER = Comparator
+            .comparing(GameDTO::created)
+            .thenComparing(GameDTO::identifier);
+
+    @Nonnull
+    private static Stream<GameCreationTimeDTO> limit(@Nonnull Stream<GameDTO> games, @Nonnull Limit limit) {
+        final var sorted = games.sorted(CREATION_ORDER);
+        return (limit.isLimited() ? sorted.limit(limit.max()) : sorted)
+                .map(e -> new GameCreationTimeDTO(e.identifier(), e.created()));
+    }
+
+    @Nonnull
+    @Override
+    public List<GameCreationTimeDTO> findAllCreationTimes() {
+        return entityStream()
+                .map(e -> new GameCreationTimeDTO(e.identifier(), e.created()))
+                .toList();
+    }
+
+    @Nonnull
+    @Override
+    public List<GameCreationTimeDTO> findByScenarioOrderByCreatedAsc(@Nonnull UUID scenario) {
+        Objects.requireNonNull(scenario);
+        return entityStream()
+                .filter(e -> scenario.equals(e.scenario()))
+                .sorted(Comparator.comparing(GameDTO::created))
+                .map(e -> new GameCreationTimeDTO(e.identifier(), e.created()))
+                .toList();
+    }
+
+    @Nonnull
+    @Override
+    public Stream<GameCreationTimeDTO> findByScenarioOrderByCreatedAscIdentifierAsc(
+            @Nonnull UUID scenario, @Nonnull Limit limit) {
+        Objects.requireNonNull(scenario);
+        return limit(entityStream().filter(e -> scenario.equals(e.scenario())), limit);
+    }
+
+    @Nonnull
+    @Override
+    public Stream<GameCreationTimeDTO> findByScenarioAfter(
+            @Nonnull UUID scenario, @Nonnull Instant afterCreated, @Nonnull UUID afterGame, @Nonnull Limit limit) {
+        Objects.requireNonNull(scenario);
+        final var after = new GameDTO(afterGame, scenario, afterCreated, null, null, null, null);
+        return limit(entityStream()
+                        .filter(e -> scenario.equals(e.scenario()))
+                        .filter(e -> CREATION_ORDER.compare(after, e) < 0),
+                limit);
+    }
+
+    @Nonnull
+    private static GameSummaryDTO summarise(@Nonnull GameDTO game) {
+        return new GameSummaryDTO(
+                game.identifier(), game.scenario(), game.created(), game.runState(), game.recruiting());
+    }
+
+    @Nonnull
+    @Override
+    public Stream<GameSummaryDTO> findSummariesByScenarioOrderByCreatedAscIdentifierAsc(
+            @Nonnull UUID scenario, @Nonnull Limit limit) {
+        Objects.requireNonNull(scenario);
+        final var sorted = entityStream()
+                .filter(e -> scenario.equals(e.scenario()))
+                .sorted(CREATION_ORDER);
+        return (limit.isLimited() ? sorted.limit(limit.max()) : sorted)
+                .map(FakeGameSpringRepository::summarise);
+    }
+
+    @Nonnull
+    @Override
+    public Stream<GameSummaryDTO> findSummariesByScenarioAfter(
+            @Nonnull UUID scenario, @Nonnull Instant afterCreated, @Nonnull UUID afterGame, @Nonnull Limit limit) {
+        Objects.requireNonNull(scenario);
+        final var after = new GameDTO(afterGame, scenario, afterCreated, null, null, null, null);
+        final var sorted = entityStream()
+                .filter(e -> scenario.equals(e.scenario()))
+                .filter(e -> CREATION_ORDER.compare(after, e) < 0)
+                .sorted(CREATION_ORDER);
+        return (limit.isLimited() ? sorted.limit(limit.max()) : sorted)
+                .map(FakeGameSpringRepository::summarise);
+    }
+
+    @Nonnull
+    @Override
+    public List<GameSummaryDTO> findSummariesByIdentifierIn(@Nonnull Collection<UUID> ids) {
+        return entityStream()
+                .filter(e -> ids.contains(e.identifier()))
+                .map(FakeGameSpringRepository::summarise)
+                .toList();
+    }
+
+    @Override
+    public boolean addUsers(
+            @Nonnull UUID game,
+            @Nonnull GameDTO.RunStateDTO runState,
+            boolean recruiting,
+            @Nonnull Collection<GameDTO.PlayedCharacterDTO> users) {
+        Objects.requireNonNull(game, "game");
+        Objects.requireNonNull(runState, "runState");
+        final var characterIds = users.stream().map(GameDTO.PlayedCharacterDTO::characterId).toList();
+        final var userIds = users.stream().map(GameDTO.PlayedCharacterDTO::userId).toList();
+        return replace(game, existing -> {
+            final List<GameDTO.PlayedCharacterDTO> existingUsers = existing.users() == null ? List.of() : existing.users();
+            if (existing.runState() != runState
+                    || GameDTO.isRecruiting(existing) != recruiting
+                    || existingUsers.stream().anyMatch(u ->
+                    characterIds.contains(u.characterId()) || userIds.contains(u.userId()))) {
+                return existing;
+            }
+            final var newUsers = new ArrayList<>(existingUsers);
+            newUsers.addAll(users);
+            return new GameDTO(existing.identifier(), existing.scenario(), existing.created(),
+                    existing.runState(), existing.recruiting(), List.copyOf(newUsers),
+                    existing.version() == null ? 1L : existing.version() + 1L);
+        });
+    }
+
+    @Override
+    public boolean updateChangedFields(@Nonnull GameDTO before, @Nonnull GameDTO after) {
+        if (!before.identifier().equals(after.identifier())) {
+            throw new IllegalArgumentException("different games");
+        }
+        return replace(before.identifier(), existing -> Objects.equals(existing.version(), before.version()) ?
+                after.withVersion(before.version() == null ? 1L : before.version() + 1L) : existing);
+    }
+
+    @Nonnull
+    @Override
+    protected GameDTO prepareToSave(@Nullable GameDTO existing, @Nonnull GameDTO entity) {
+        if (entity.version() == null) {
+            if (existing != null) {
+                throw new DuplicateKeyException("game " + entity.identifier());
+            }
+            return entity.withVersion(0L);
+        } else if (existing == null || !entity.version().equals(existing.version())) {
+            throw new OptimisticLockingFailureException("game " + entity.identifier());
+        } else {
+            return entity.withVersion(entity.version() + 1L);
+        }
+    }
+
     @Nonnull
     @Override
     protected UUID idOf(@Nonnull GameDTO entity) {
@@ -0,0 +1,100 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class GameDTOCacheTest {
+
+    private final GameDTOCache cache = new GameDTOCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private static GameDTO createGame(final UUID id, final long version) {
+        return new GameDTO(id, UUID.randomUUID(), Instant.parse("2024-01-01T00:00:00Z"),
+                GameDTO.RunStateDTO.WAITING_TO_START, true, List.of(), version);
+    }
+
+    private Function<UUID, Optional<GameDTO>> loader(final GameDTO value) {
+        return id -> {
+            loads.incrementAndGet();
+            return Optional.of(value);
+        };
+    }
+
+    @Test
+    public void findTwice() {
+        final var game = createGame(UUID.randomUUID(), 1L);
+        cache.find(game.identifier(), loader(game));
+
+        final var found = cache.find(game.identifier(), loader(game));
+
+        assertThat(found, is(Optional.of(game)));
+        assertThat("loads", loads.get(), is(1));
+    }
+
+    @Test
+    public void invalidate() {
+        final var game = createGame(UUID.randomUUID(), 1L);
+        final var updated = game.withVersion(2L);
+        cache.find(game.identifier(), loader(game));
+
+        cache.invalidate(game.identifier());
+
+        assertThat(cache.find(game.identifier(), loader(updated)), is(Optional.of(updated)));
+        assertThat("loads", loads.get(), is(2));
+    }
+
+    @Test
+    public void invalidatedWhileLoading() {
+        final var game = createGame(UUID.randomUUID(), 1L);
+        final var updated = game.withVersion(2L);
+
+        cache.find(game.identifier(), id -> {
+            cache.invalidate(id);
+            return Optional.of(game);
+        });
+
+        assertThat("stale load not cached", cache.find(game.identifier(), loader(updated)),
+                is(Optional.of(updated)));
+    }
+
+    @Test
+    public void otherInvalidatedWhileLoading() {
+        final var game = createGame(UUID.randomUUID(), 1L);
+        final var other = UUID.randomUUID();
+
+        cache.find(game.identifier(), id -> {
+            cache.invalidate(other);
+            return Optional.of(game);
+        });
+
+        assertThat(cache.find(game.identifier(), loader(game)), is(Optional.of(game)));
+        assertThat("loads", loads.get(), is(0));
+    }
+}
@@ -0,0 +1,119 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GameDTOTest {
+
+    private static final UUID GAME = UUID.randomUUID();
+    private static final UUID SCENARIO = UUID.randomUUID();
+    private static final Instant CREATED = Instant.parse("2024-01-01T00:00:00Z");
+    private static final GameDTO.PlayedCharacterDTO PLAYER_A = new GameDTO.PlayedCharacterDTO(
+            UUID.randomUUID(), UUID.randomUUID());
+    private static final GameDTO.PlayedCharacterDTO PLAYER_B = new GameDTO.PlayedCharacterDTO(
+            UUID.randomUUID(), UUID.randomUUID());
+
+    private static GameDTO createGame(
+            final GameDTO.RunStateDTO runState,
+            final boolean recruiting,
+            final List<GameDTO.PlayedCharacterDTO> users,
+            final Long version) {
+        return new GameDTO(GAME, SCENARIO, CREATED, runState, recruiting, users, version);
+    }
+
+    @Nested
+    public class IsSameState {
+
+        @Test
+        public void differentVersions() {
+            final var a = createGame(GameDTO.RunStateDTO.RUNNING, true, List.of(PLAYER_A), 1L);
+            final var b = a.withVersion(2L);
+
+            assertThat(GameDTO.isSameState(a, b), is(true));
+        }
+
+        @Test
+        public void differentUserOrder() {
+            final var a = createGame(GameDTO.RunStateDTO.RUNNING, true, List.of(PLAYER_A, PLAYER_B), 1L);
+            final var b = createGame(GameDTO.RunStateDTO.RUNNING, true, List.of(PLAYER_B, PLAYER_A), 1L);
+
+            assertThat(GameDTO.isSameState(a, b), is(true));
+        }
+
+        @Test
+        public void differentRunState() {
+            final var a = createGame(GameDTO.RunStateDTO.WAITING_TO_START, true, List.of(), 1L);
+            final var b = createGame(GameDTO.RunStateDTO.RUNNING, true, List.of(), 1L);
+
+            assertThat(GameDTO.isSameState(a, b), is(false));
+        }
+    }
+
+    @Nested
+    public class FindAddedUsers {
+
+        @Test
+        public void addUser() {
+            final var before = createGame(GameDTO.RunStateDTO.WAITING_TO_START, true, List.of(PLAYER_A), 1L);
+            final var after = createGame(GameDTO.RunStateDTO.WAITING_TO_START, true, List.of(PLAYER_B, PLAYER_A), 1L);
+
+            assertThat(GameDTO.findAddedUsers(before, after), is(List.of(PLAYER_B)));
+        }
+
+        @Test
+        public void firstUserOfUnsavedUsers() {
+            final var before = createGame(GameDTO.RunStateDTO.WAITING_TO_START, true, null, null);
+            final var after = createGame(GameDTO.RunStateDTO.WAITING_TO_START, true, List.of(PLAYER_A), null);
+
+            assertThat(GameDTO.findAddedUsers(before, after), is(List.of(PLAYER_A)));
+        }
+
+        @Test
+        public void noChange() {
+            final var game = createGame(GameDTO.RunStateDTO.WAITING_TO_START, true, List.of(PLAYER_A), 1L);
+
+            assertThat(GameDTO.findAddedUsers(game, game), nullValue());
+        }
+
+        @Test
+        public void removeUser() {
+            final var before = createGame(GameDTO.RunStateDTO.WAITING_TO_START, true, List.of(PLAYER_A), 1L);
+            final var after = createGame(GameDTO.RunStateDTO.WAITING_TO_START, true, List.of(PLAYER_B), 1L);
+
+            assertThat(GameDTO.findAddedUsers(before, after), nullValue());
+        }
+
+        @Test
+        public void addUserAndEndRecruitment() {
+            final var before = createGame(GameDTO.RunStateDTO.WAITING_TO_START, true, List.of(PLAYER_A), 1L);
+            final var after = createGame(GameDTO.RunStateDTO.WAITING_TO_START, false, List.of(PLAYER_A, PLAYER_B), 1L);
+
+            assertThat(GameDTO.findAddedUsers(before, after), nullValue());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class RepositoryCallStatisticsTest {
+
+    @Test
+    public void notRecording() {
+        RepositoryCallStatistics.recordRepositoryCall();
+        RepositoryCallStatistics.recordCacheHits(1);
+
+        try (var statistics = RepositoryCallStatistics.start()) {
+            assertThat("repositoryCalls", statistics.getRepositoryCalls(), is(0));
+            assertThat("cacheHits", statistics.getCacheHits(), is(0));
+        }
+    }
+
+    @Test
+    public void recording() {
+        final RepositoryCallStatistics statistics;
+        try (var s = RepositoryCallStatistics.start()) {
+            statistics = s;
+            RepositoryCallStatistics.recordRepositoryCall();
+            RepositoryCallStatistics.recordCacheHits(2);
+        }
+        RepositoryCallStatistics.recordRepositoryCall();
+
+        assertThat("repositoryCalls", statistics.getRepositoryCalls(), is(1));
+        assertThat("cacheHits", statistics.getCacheHits(), is(2));
+    }
+
+    @Test
+    public void nested() {
+        try (var outer = RepositoryCallStatistics.start()) {
+            RepositoryCallStatistics.recordRepositoryCall();
+            try (var inner = RepositoryCallStatistics.start()) {
+                RepositoryCallStatistics.recordRepositoryCall();
+                RepositoryCallStatistics.recordCacheHits(1);
+                assertThat("inner repositoryCalls", inner.getRepositoryCalls(), is(1));
+            }
+            RepositoryCallStatistics.recordCacheHits(1);
+
+            assertThat("outer repositoryCalls", outer.getRepositoryCalls(), is(2));
+            assertThat("outer cacheHits", outer.getCacheHits(), is(2));
+        }
+    }
+
+    @Test
+    public void gameCache() {
+        final var cache = new GameDTOCache();
+        final var id = UUID.randomUUID();
+        try (var statistics = RepositoryCallStatistics.start()) {
+            cache.find(id, i -> Optional.empty());
+
+            assertThat("repositoryCalls", statistics.getRepositoryCalls(), is(1));
+            assertThat("cacheHits", statistics.getCacheHits(), is(0));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class UserGameAssociationCacheTest {
+
+    private final UserGameAssociationCache cache = new UserGameAssociationCache();
+    private final UUID user = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Function<UUID, Optional<UserGameAssociationDTO>> loader(final Optional<UserGameAssociationDTO> value) {
+        return u -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    @Test
+    public void findAbsentTwice() {
+        cache.find(user, loader(Optional.empty()));
+
+        final var found = cache.find(user, loader(Optional.empty()));
+
+        assertThat(found, is(Optional.empty()));
+        assertThat("loads", loads.get(), is(1));
+    }
+
+    @Test
+    public void findPresentTwice() {
+        final var association = new UserGameAssociationDTO(user, UUID.randomUUID());
+        cache.find(user, loader(Optional.of(association)));
+
+        final var found = cache.find(user, loader(Optional.of(association)));
+
+        assertThat(found, is(Optional.of(association)));
+        assertThat("loads", loads.get(), is(1));
+    }
+
+    @Test
+    public void putAfterFind() {
+        final var association = new UserGameAssociationDTO(user, UUID.randomUUID());
+        cache.find(user, loader(Optional.empty()));
+
+        cache.put(association);
+
+        assertThat(cache.find(user, loader(Optional.empty())), is(Optional.of(association)));
+        assertThat("loads", loads.get(), is(1));
+    }
+
+    @Test
+    public void invalidate() {
+        final var association = new UserGameAssociationDTO(user, UUID.randomUUID());
+        cache.find(user, loader(Optional.empty()));
+
+        cache.invalidate(user);
+
+        assertThat(cache.find(user, loader(Optional.of(association))), is(Optional.of(association)));
+        assertThat("loads", loads.get(), is(2));
+    }
+
+    @Test
+    public void changedWhileLoading() {
+        final var association = new UserGameAssociationDTO(user, UUID.randomUUID());
+
+        cache.find(user, u -> {
+            cache.put(association);
+            return Optional.empty();
+        });
+
+        assertThat("stale load not cached", cache.find(user, loader(Optional.empty())),
+                is(Optional.of(association)));
+    }
+
+    @Test
+    public void otherChangedWhileLoading() {
+        final var association = new UserGameAssociationDTO(UUID.randomUUID(), UUID.randomUUID());
+        cache.find(user, u -> {
+            cache.put(association);
+            return Optional.empty();
+        });
+
+        assertThat(cache.find(user, loader(Optional.empty())), is(Optional.empty()));
+        assertThat("loads", loads.get(), is(0));
+    }
+}
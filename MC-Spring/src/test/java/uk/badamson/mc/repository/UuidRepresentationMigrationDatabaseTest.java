@@ -0,0 +1,113 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import uk.badamson.mc.Fixtures;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@Testcontainers
+@Tag("Spring")
+public class UuidRepresentationMigrationDatabaseTest {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer(Fixtures.MONGO_DB_IMAGE);
+
+    private static final UUID ID = UUID.randomUUID();
+
+    private MongoClient client;
+    private MongoTemplate mongoOperations;
+
+    @BeforeEach
+    public void setUp() {
+        client = MongoClients.create(mongoDBContainer.getConnectionString());
+        mongoOperations = new MongoTemplate(client, "mc");
+        mongoOperations.getDb().drop();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        client.close();
+    }
+
+    private MongoCollection<BsonDocument> getGames() {
+        return mongoOperations.getCollection("game").withDocumentClass(BsonDocument.class);
+    }
+
+    private void insertGame(final UuidRepresentation representation) {
+        getGames().insertOne(new BsonDocument("_id", new BsonBinary(ID, representation))
+                .append("name", new BsonString("game")));
+    }
+
+    private void start() {
+        new UuidRepresentationMigration(mongoOperations, false).afterPropertiesSet();
+    }
+
+    @Test
+    public void empty() {
+        final var migration = new UuidRepresentationMigration(mongoOperations, false);
+
+        assertThat(migration.hasLegacyIds(), is(false));
+        migration.afterPropertiesSet();
+    }
+
+    @Test
+    public void standard() {
+        insertGame(UuidRepresentation.STANDARD);
+
+        assertThat(new UuidRepresentationMigration(mongoOperations, false).hasLegacyIds(), is(false));
+        start();
+
+        assertThat(getGames().find().into(new ArrayList<>()), contains(
+                new BsonDocument("_id", new BsonBinary(ID, UuidRepresentation.STANDARD))
+                        .append("name", new BsonString("game"))));
+    }
+
+    @Test
+    public void legacy() {
+        insertGame(UuidRepresentation.JAVA_LEGACY);
+
+        assertThat(new UuidRepresentationMigration(mongoOperations, false).hasLegacyIds(), is(true));
+        start();
+
+        assertThat(getGames().find().into(new ArrayList<>()), contains(
+                new BsonDocument("_id", new BsonBinary(ID, UuidRepresentation.STANDARD))
+                        .append("name", new BsonString("game"))));
+        assertThat(new UuidRepresentationMigration(mongoOperations, false).hasLegacyIds(), is(false));
+    }
+}
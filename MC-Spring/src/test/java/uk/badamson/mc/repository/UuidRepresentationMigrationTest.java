@@ -0,0 +1,84 @@
+package uk.badamson.mc.repository;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class UuidRepresentationMigrationTest {
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final UUID OTHER_ID = UUID.randomUUID();
+
+    private static BsonBinary legacy(final UUID uuid) {
+        return new BsonBinary(uuid, UuidRepresentation.JAVA_LEGACY);
+    }
+
+    private static BsonBinary standard(final UUID uuid) {
+        return new BsonBinary(uuid, UuidRepresentation.STANDARD);
+    }
+
+    @Test
+    public void legacyBinary() {
+        final var converted = UuidRepresentationMigration.convert(legacy(ID));
+
+        assertThat(converted.asBinary().getType(), is(BsonBinarySubType.UUID_STANDARD.getValue()));
+        assertThat(converted.asBinary().asUuid(), is(ID));
+    }
+
+    @Test
+    public void standardBinary() {
+        final var value = standard(ID);
+
+        assertThat(UuidRepresentationMigration.convert(value), sameInstance(value));
+    }
+
+    @Test
+    public void documentWithoutUuids() {
+        final var document = new BsonDocument("name", new BsonString("value"));
+
+        assertThat(UuidRepresentationMigration.convert(document), sameInstance(document));
+    }
+
+    @Test
+    public void nested() {
+        final var document = new BsonDocument("_id", legacy(ID))
+                .append("users", new BsonArray(List.of(
+                        new BsonDocument("characterId", legacy(OTHER_ID)).append("userId", standard(ID)))));
+
+        final var converted = UuidRepresentationMigration.convert(document);
+
+        final var expected = new BsonDocument("_id", standard(ID))
+                .append("users", new BsonArray(List.of(
+                        new BsonDocument("characterId", standard(OTHER_ID)).append("userId", standard(ID)))));
+        assertThat(converted, is(expected));
+        assertThat("original unchanged", document.get("_id"), is(legacy(ID)));
+    }
+}
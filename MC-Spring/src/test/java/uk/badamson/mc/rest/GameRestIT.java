@@ -165,7 +165,7 @@ public class GameRestIT extends RestIT {
     }
 
     /**
-     * Tests Spring annotations on {@link GameController#getGame(SpringUser, UUID)}
+     * Tests Spring annotations on {@link GameController#getGame(SpringUser, UUID, String)}
      */
     @Nested
     @SuppressFBWarnings(value="EI_EXPOSE_REP", justification = "SpotBugs bug")
@@ -0,0 +1,50 @@
+package uk.badamson.mc.rest;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import uk.badamson.mc.Fixtures;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+
+/**
+ * Tests the metrics of the MongoDB data path exposed to Prometheus.
+ */
+@Tag("BootJAR")
+public class MetricsRestIT extends RestIT {
+
+    @Test
+    public void repositoryAndDriverMetrics() {
+        addUser(Fixtures.createBasicUserDetailsWithPlayerRole());
+
+        final var response = getMcBackEndClient().getPrometheusMetrics();
+
+        response.expectStatus().isOk();
+        response.expectBody(String.class).value(allOf(
+                containsString("spring_data_repository_invocations_seconds_bucket{"),
+                containsString("repository=\"UserSpringRepository\""),
+                containsString("method=\"save\""),
+                containsString("mongodb_driver_commands_seconds_bucket{"),
+                containsString("collection=\"user\""),
+                containsString("mongodb_driver_pool_size{")
+        ));
+    }
+}
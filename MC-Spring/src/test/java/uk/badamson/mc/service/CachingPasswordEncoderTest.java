@@ -0,0 +1,85 @@
+package uk.badamson.mc.service;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CachingPasswordEncoderTest {
+
+    private static final String PASSWORD_A = "letMeIn";
+    private static final String PASSWORD_B = "secret";
+
+    private final CountingPasswordEncoder delegate = new CountingPasswordEncoder();
+    private final CachingPasswordEncoder encoder = new CachingPasswordEncoder(delegate);
+
+    @Test
+    public void repeatedMatch() {
+        final var encoded = encoder.encode(PASSWORD_A);
+
+        final boolean match1 = encoder.matches(PASSWORD_A, encoded);
+        final boolean match2 = encoder.matches(PASSWORD_A, encoded);
+
+        assertThat("matches", match1 && match2);
+        assertThat("verified once", delegate.matchesCount.get(), is(1));
+    }
+
+    @Test
+    public void repeatedMismatch() {
+        final var encoded = encoder.encode(PASSWORD_A);
+
+        final boolean match1 = encoder.matches(PASSWORD_B, encoded);
+        final boolean match2 = encoder.matches(PASSWORD_B, encoded);
+
+        assertThat("does not match", !match1 && !match2);
+        assertThat("verified every time", delegate.matchesCount.get(), is(2));
+    }
+
+    @Test
+    public void changedPassword() {
+        final var encodedA = encoder.encode(PASSWORD_A);
+        final var encodedB = encoder.encode(PASSWORD_B);
+        encoder.matches(PASSWORD_A, encodedA);
+
+        final boolean match = encoder.matches(PASSWORD_A, encodedB);
+
+        assertThat("does not match", !match);
+    }
+
+    private static final class CountingPasswordEncoder implements PasswordEncoder {
+
+        private final AtomicInteger matchesCount = new AtomicInteger();
+
+        @Override
+        public String encode(final CharSequence rawPassword) {
+            return "{noop}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+            matchesCount.incrementAndGet();
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
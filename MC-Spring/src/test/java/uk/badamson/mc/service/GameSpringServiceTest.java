@@ -18,6 +18,9 @@ package uk.badamson.mc.service;
  * along with MC.  If not, see <https://www.gnu.org/licenses/>.
  */
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -30,7 +33,13 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import uk.badamson.mc.*;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -389,6 +398,75 @@ public class GameSpringServiceTest {
 
     }
 
+    @Nested
+    public class MayUserJoinGameIfPresent {
+
+        @Test
+        public void unknownGame() {
+            final var game = UUID.randomUUID();
+            final var user = userService.add(new BasicUserDetails(createUserName(),
+                    PASSWORD, Authority.ALL, true, true, true, true)).getId();
+
+            assertThat(gameService.mayUserJoinGameIfPresent(user, game), is(Optional.empty()));
+        }
+
+        @Test
+        public void notRecruiting() {
+            final var game = create(getAScenarioId()).getIdentifier();
+            final var user = userService.add(new BasicUserDetails(createUserName(),
+                    PASSWORD, Authority.ALL, true, true, true, true)).getId();
+            endRecruitment(game);
+
+            test(user, game, false);
+        }
+
+        @Test
+        public void notPlayer() {
+            final var game = create(getAScenarioId()).getIdentifier();
+            final Set<Authority> authorities = EnumSet
+                    .complementOf(EnumSet.of(Authority.ROLE_PLAYER));
+            final var user = userService.add(new BasicUserDetails(createUserName(),
+                    PASSWORD, authorities, true, true, true, true)).getId();
+
+            test(user, game, false);
+        }
+
+        @Test
+        public void playingDifferentGame() {
+            final var scenario = getAScenarioId();
+            final var gameA = create(scenario).getIdentifier();
+            final var gameB = create(scenario).getIdentifier();
+            final var user = userService.add(createPlayerUserDetails(createUserName())).getId();
+            userJoinsGame(user, gameA);
+
+            test(user, gameB, false);
+        }
+
+        @Test
+        public void alreadyPlaying() {
+            final var game = create(getAScenarioId()).getIdentifier();
+            final var user = userService.add(createPlayerUserDetails(createUserName())).getId();
+            userJoinsGame(user, game);
+
+            test(user, game, true);
+        }
+
+        @Test
+        public void may() {
+            final var game = create(getAScenarioId()).getIdentifier();
+            final var user = userService.add(createPlayerUserDetails(createUserName())).getId();
+
+            test(user, game, true);
+        }
+
+        private void test(final UUID user, final UUID game, final boolean expected) {
+            final var result = gameService.mayUserJoinGameIfPresent(user, game);
+
+            assertThat(result, is(Optional.of(expected)));
+        }
+
+    }
+
     @Nested
     public class UserJoinsGame {
 
@@ -486,6 +564,85 @@ public class GameSpringServiceTest {
             assertThat("The current game of the user becomes the given game.", currentGame, is(game));
         }
 
+        @Test
+        public void concurrentJoins() throws Exception {
+            final var scenarioId = getAScenarioId();
+            final var game = create(scenarioId).getIdentifier();
+            final Optional<Scenario> scenarioOptional = scenarioService.getScenario(scenarioId);
+            assert scenarioOptional.isPresent();
+            // Each round of contention for the first free character lets at least one join succeed
+            final var nUsers = Math.min(
+                    scenarioOptional.get().getCharacters().size(), GameSpringService.MAXIMUM_ATTEMPTS);
+            final List<UUID> users = new ArrayList<>(nUsers);
+            for (int i = 0; i < nUsers; ++i) {
+                users.add(userService.add(createPlayerUserDetails(createUserName())).getId());
+            }
+            final var ready = new CountDownLatch(1);
+            final var executor = Executors.newFixedThreadPool(nUsers);
+            final List<Future<?>> joins = new ArrayList<>(nUsers);
+            try {
+                for (final var user : users) {
+                    joins.add(executor.submit(() -> {
+                        ready.await();
+                        gameService.userJoinsGame(user, game);
+                        return null;
+                    }));
+                }
+                ready.countDown();
+                for (final var join : joins) {
+                    join.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            final Optional<FindGameResult> gameOptional = getGameAsGameManager(game);
+            assertThat("game", gameOptional.isPresent());
+            assertThat("No join was lost",
+                    Set.copyOf(gameOptional.get().game().getUsers().values()), is(Set.copyOf(users)));
+        }
+
+    }
+
+    @Nested
+    public class FlightRecorderEvents {
+
+        private static final String EVENT_NAME = "uk.badamson.mc.GameOperation";
+
+        @Test
+        public void createAndGet() throws IOException {
+            final var scenario = getAScenarioId();
+            final var file = Files.createTempFile("game-operations", ".jfr");
+            final UUID game;
+            final List<RecordedEvent> events;
+            try {
+                try (var recording = new Recording()) {
+                    recording.enable(EVENT_NAME).withThreshold(Duration.ZERO);
+                    recording.start();
+                    game = create(scenario).getIdentifier();
+                    getGameAsGameManager(game);
+                    recording.stop();
+                    recording.dump(file);
+                }
+                events = RecordingFile.readAllEvents(file).stream()
+                        .filter(e -> e.getEventType().getName().equals(EVENT_NAME))
+                        .filter(e -> game.toString().equals(e.getString("game")))
+                        .toList();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+
+            assertThat(events.stream().map(e -> e.getString("operation")).toList(),
+                    containsInAnyOrder("create", "getGameAsGameManager"));
+            final var get = events.stream()
+                    .filter(e -> e.getString("operation").equals("getGameAsGameManager"))
+                    .findAny().orElseThrow();
+            assertAll(
+                    () -> assertThat("scenario", get.getString("scenario"), is(scenario.toString())),
+                    () -> assertThat("repositoryCalls + cacheHits",
+                            get.getInt("repositoryCalls") + get.getInt("cacheHits"), greaterThan(0))
+            );
+        }
     }
 
 }
@@ -0,0 +1,110 @@
+package uk.badamson.mc.spring;
+/*
+ * © Copyright Benedict Adamson 2024.
+ *
+ * This file is part of MC.
+ *
+ * MC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with MC.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SpringUserCacheTest {
+
+    private static final String USERNAME = "jeff";
+
+    private final SpringUserCache cache = new SpringUserCache();
+    private final UUID id = UUID.randomUUID();
+
+    private SpringUser createUser(final String password) {
+        return new SpringUser(id, USERNAME, password, EnumSet.of(SpringAuthority.ROLE_PLAYER),
+                true, true, true, true);
+    }
+
+    private void load(final SpringUser user) {
+        assertThat(cache.getUserFromCache(USERNAME), nullValue());
+        cache.putUserInCache(user);
+    }
+
+    @Test
+    public void putAfterMiss() {
+        load(createUser("password"));
+
+        final var cached = cache.getUserFromCache(USERNAME);
+
+        assertThat(cached, notNullValue());
+        assertThat(cached.getPassword(), is("password"));
+    }
+
+    @Test
+    public void remove() {
+        load(createUser("password"));
+
+        cache.removeUserFromCache(USERNAME);
+
+        assertThat(cache.getUserFromCache(USERNAME), nullValue());
+    }
+
+    @Test
+    public void invalidatedWhileLoading() {
+        assertThat(cache.getUserFromCache(USERNAME), nullValue());
+        final var stale = createUser("old password");
+        cache.removeUserFromCache(USERNAME);
+
+        cache.putUserInCache(stale);
+
+        assertThat("stale load not cached", cache.getUserFromCache(USERNAME), nullValue());
+    }
+
+    @Test
+    public void invalidatedByIdWhileLoading() {
+        assertThat(cache.getUserFromCache(USERNAME), nullValue());
+        final var stale = createUser("old password");
+        cache.removeUserFromCacheById(id);
+
+        cache.putUserInCache(stale);
+
+        assertThat("stale load not cached", cache.getUserFromCache(USERNAME), nullValue());
+    }
+
+    @Test
+    public void allInvalidatedWhileLoading() {
+        assertThat(cache.getUserFromCache(USERNAME), nullValue());
+        final var stale = createUser("old password");
+        cache.removeAllUsersFromCache();
+
+        cache.putUserInCache(stale);
+
+        assertThat("stale load not cached", cache.getUserFromCache(USERNAME), nullValue());
+    }
+
+    @Test
+    public void loadedAgainAfterInvalidation() {
+        assertThat(cache.getUserFromCache(USERNAME), nullValue());
+        cache.removeUserFromCache(USERNAME);
+        cache.putUserInCache(createUser("old password"));
+
+        load(createUser("new password"));
+
+        final var cached = cache.getUserFromCache(USERNAME);
+        assertThat(cached, notNullValue());
+        assertThat(cached.getPassword(), is("new password"));
+    }
+}
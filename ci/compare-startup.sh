@@ -0,0 +1,96 @@
+#!/bin/sh
+# compare-startup.sh: compare the start-up time and memory use of the builds of the back-end server
+#
+# © Copyright Benedict Adamson 2024.
+#
+# This file is part of MC.
+#
+# MC is free software: you can redistribute it and/or modify
+# it under the terms of the GNU Affero General Public License as published by
+# the Free Software Foundation, either version 3 of the License, or
+# (at your option) any later version.
+#
+# MC is distributed in the hope that it will be useful,
+# but WITHOUT ANY WARRANTY; without even the implied warranty of
+# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+# GNU General Public License for more details.
+#
+# You should have received a copy of the GNU Affero General Public License
+# along with MC.  If not, see <https://www.gnu.org/licenses/>.
+#
+# Usage: ci/compare-startup.sh [RUNS]
+#
+# Run from the root of the project, after
+#   ./gradlew :MC-Spring:bootJar :MC-Spring:installUnpacked :MC-Spring:nativeCompile
+# The servers need a MongoDB server, so set SPRING_DATA_MONGODB_HOST, SPRING_DATA_MONGODB_PASSWORD
+# and ADMINISTRATOR_PASSWORD as for the mcbe launcher.
+#
+# For each build, starts the server RUNS times (default 5),
+# and reports the time until the server reports that it is healthy
+# and the resident set size (RSS) of the server at that time.
+# The builds are
+# * jvm: the boot JAR;
+# * jvm-aot-cds: the unpacked JAR, using Spring AOT classes and a class data sharing archive;
+# * native: the GraalVM native executable.
+# A build that has not been built is skipped.
+
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+BUILD=MC-Spring/build
+BOOT_JAR=`ls "$BUILD"/libs/MC-Spring-*.jar 2>/dev/null | grep -v -e '-plain' -e '-unpacked' -e '-sources' -e '-javadoc' | head -n 1`
+UNPACKED_JAR="$BUILD"/unpacked/MC-Spring.jar
+NATIVE="$BUILD"/native/nativeCompile/mcbe-native
+CDS_ARCHIVE=`mktemp -d`/MC-Spring.jsa
+
+now_ms() {
+  echo $((`date +%s%N` / 1000000))
+}
+
+# Usage: measure NAME COMMAND...
+# Prints the start-up time (ms) and RSS (kB)
+measure() {
+  NAME="$1"
+  shift
+  START=`now_ms`
+  "$@" --server.port="$PORT" > /dev/null 2>&1 &
+  PID=$!
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+    if ! kill -0 $PID 2> /dev/null; then
+      echo "$NAME: server failed to start" 1>&2
+      return 1
+    fi
+    sleep 0.05
+  done
+  END=`now_ms`
+  RSS=`awk '/^VmRSS:/ { print $2 }' /proc/$PID/status`
+  kill $PID
+  wait $PID
+  echo "$NAME $((END - START)) $RSS"
+}
+
+# Usage: report NAME COMMAND...
+report() {
+  NAME="$1"
+  shift
+  i=0
+  while [ $i -lt "$RUNS" ]; do
+    measure "$NAME" "$@" || return 1
+    i=$((i + 1))
+  done | awk '
+    { n++; time += $2; rss += $3; name = $1 }
+    END { if (n > 0) printf "%-12s %8.0f %10.0f\n", name, time / n, rss / n }'
+}
+
+printf "%-12s %8s %10s\n" build "start/ms" "RSS/kB"
+if [ -n "$BOOT_JAR" ]; then
+  report jvm java -jar "$BOOT_JAR"
+fi
+if [ -f "$UNPACKED_JAR" ]; then
+  java -XX:ArchiveClassesAtExit="$CDS_ARCHIVE" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$UNPACKED_JAR" > /dev/null 2>&1
+  report jvm-aot-cds java -XX:SharedArchiveFile="$CDS_ARCHIVE" -Dspring.aot.enabled=true -jar "$UNPACKED_JAR"
+fi
+if [ -x "$NATIVE" ]; then
+  report native "$NATIVE"
+fi
+rm -rf `dirname "$CDS_ARCHIVE"`